@@ -1,32 +1,69 @@
 package com.liuclc.mcp_activemq;
 
 import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
 import javax.jms.TextMessage;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ScheduledMessage;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 
 @Service
 public class ActivemqMessageService {
+    private static final String JOB_SCHEDULER_MBEAN = "org.apache.activemq:type=Broker,brokerName=localhost,service=JobScheduler,name=JMS";
+    private static final int JOLOKIA_CONNECT_TIMEOUT_MS = 5000;
+    private static final int JOLOKIA_READ_TIMEOUT_MS = 10000;
+    private static final int MAX_BURST_SIZE = 10000;
+    private static final long MAX_SAMPLE_MS = 60000;
+    private static final int MAX_ADAPTIVE_SEND_SIZE = 100000;
+    private static final int DEFAULT_TARGET_UTILISATION_PERCENT = 70;
+    private static final int ADAPTIVE_SEND_TIMEOUT_MS = 10000;
+    // The consumer ID is not an attribute of the subscription MBean, it is read from its ObjectName.
+    private static final List<String> SUBSCRIPTION_ATTRIBUTES = List.of(
+            "ClientId",
+            "ConnectionId",
+            "PrefetchSize",
+            "DispatchedQueueSize",
+            "DispatchedCounter",
+            "DequeueCounter",
+            "SlowConsumer"
+    );
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final ConnectionFactoryCreator factoryCreator;
 
     @Autowired
@@ -46,15 +83,7 @@ public class ActivemqMessageService {
 
         RestTemplate restTemplate = createRestTemplate();
 
-        HttpHeaders headers = new HttpHeaders();
-
-        String auth = username + ":" + password;
-        String encodedAuth = Base64.getEncoder()
-                                   .encodeToString(auth.getBytes(StandardCharsets.UTF_8));
-        String authHeader = "Basic " + encodedAuth;
-        headers.set("Authorization", authHeader);
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders(username, password));
 
         String sanitizedEndpoint = sanitizeEndpoint(jolokiaEndpoint);
         String sanitizedQueueName = sanitizeName(queueName);
@@ -88,15 +117,7 @@ public class ActivemqMessageService {
 
         RestTemplate restTemplate = createRestTemplate();
 
-        HttpHeaders headers = new HttpHeaders();
-
-        String auth = username + ":" + password;
-        String encodedAuth = Base64.getEncoder()
-                                   .encodeToString(auth.getBytes(StandardCharsets.UTF_8));
-        String authHeader = "Basic " + encodedAuth;
-        headers.set("Authorization", authHeader);
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders(username, password));
 
         String sanitizedEndpoint = sanitizeEndpoint(jolokiaEndpoint);
         String sanitizedTopicName = sanitizeName(topicName);
@@ -118,9 +139,78 @@ public class ActivemqMessageService {
         }
     }
 
+    @Tool(name = "inspectConsumerLag", description = "Find lagging and stuck consumers of an ActiveMQ queue or topic using Jolokia REST API, user needs to disable the CORS of Jolokia to make this work. "
+            + "Reads all subscriptions of the destination in one bulk call and returns them worst first: slow consumers, then stuck consumers, then by how full their prefetch buffer is. "
+            + "When sampleMs is given, a second read sampleMs later is used to estimate each consumer's processing rate.")
+    public String inspectConsumerLag(String jolokiaEndpoint, String username, String password,
+                                     @ToolParam(description = "Queue or Topic") String destinationType,
+                                     String destinationName,
+                                     @ToolParam(required = false, description = "Sampling interval in milliseconds for the processing rate estimate") Long sampleMs) {
+        if (!isValidJolokiaEndpoint(jolokiaEndpoint)) {
+            throw new IllegalArgumentException("Invalid Jolokia endpoint URL");
+        }
+
+        if (!"Queue".equals(destinationType) && !"Topic".equals(destinationType)) {
+            throw new IllegalArgumentException("Invalid destination type");
+        }
+
+        if (!isValidName(destinationName)) {
+            throw new IllegalArgumentException("Invalid destination name");
+        }
+
+        if (sampleMs != null && (sampleMs < 0 || sampleMs > MAX_SAMPLE_MS)) {
+            throw new IllegalArgumentException("Sample interval must be between 0 and " + MAX_SAMPLE_MS + " ms");
+        }
+
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("type", "read");
+        request.put("mbean", String.format("org.apache.activemq:type=Broker,brokerName=localhost,destinationType=%s,destinationName=%s,endpoint=Consumer,*",
+                                           destinationType, destinationName));
+        ArrayNode attributes = request.putArray("attribute");
+        SUBSCRIPTION_ATTRIBUTES.forEach(attributes::add);
+
+        try {
+            JsonNode first = readSubscriptions(jolokiaEndpoint, username, password, request.toString());
+            JsonNode second = null;
+            long elapsedMs = 0;
+            if (sampleMs != null && sampleMs > 0) {
+                long startedAt = System.nanoTime();
+                Thread.sleep(sampleMs);
+                second = readSubscriptions(jolokiaEndpoint, username, password, request.toString());
+                elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            }
+
+            JsonNode latest = second != null ? second : first;
+            List<ObjectNode> consumers = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> subscriptions = latest.fields();
+            while (subscriptions.hasNext()) {
+                Map.Entry<String, JsonNode> subscription = subscriptions.next();
+                JsonNode previous = second != null ? first.get(subscription.getKey()) : null;
+                consumers.add(describeConsumerLag(subscription.getKey(), subscription.getValue(), previous, elapsedMs));
+            }
+
+            consumers.sort(Comparator
+                    .comparing((ObjectNode consumer) -> consumer.path("slowConsumer").asBoolean()).reversed()
+                    .thenComparing(Comparator.comparing((ObjectNode consumer) -> consumer.path("stuck").asBoolean()).reversed())
+                    .thenComparing(Comparator.comparingDouble((ObjectNode consumer) -> consumer.path("prefetchFill").asDouble()).reversed())
+                    .thenComparing(Comparator.comparingLong((ObjectNode consumer) -> consumer.path("inFlight").asLong()).reversed()));
+
+            ObjectNode result = objectMapper.createObjectNode();
+            result.put("destination", destinationType + "://" + destinationName);
+            result.put("consumerCount", consumers.size());
+            result.putArray("consumers").addAll(consumers);
+            return result.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Error inspecting consumers: interrupted";
+        } catch (Exception e) {
+            return "Error inspecting consumers: " + e.getMessage();
+        }
+    }
+
     @Tool(name="sendMessageToQueue", description="Send a message to a queue of an ActiveMQ message broker")
     public void sendMessageToQueue(String activemqEndpoint,String activemqUsername, String activemqPassword, String queueName, String messageBody) throws JMSException {
-        ActiveMQConnectionFactory connectionFactory = factoryCreator.createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        ConnectionFactory connectionFactory = factoryCreator.getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
 
         try (Connection producerConnection = connectionFactory.createConnection();
              Session producerSession = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -131,12 +221,17 @@ public class ActivemqMessageService {
 
             TextMessage producerMessage = producerSession.createTextMessage(messageBody);
             producer.send(producerMessage);
+        } catch (JMSException e) {
+            factoryCreator.handleConnectionFailure(activemqEndpoint, activemqUsername, activemqPassword, e);
+            throw e;
+        } finally {
+            factoryCreator.releaseConnectionFactory(connectionFactory);
         }
     }
 
     @Tool(name="sendMessageToTopic", description="Send a message to a topic of an ActiveMQ message broker")
     public void sendMessageToTopic(String activemqEndpoint,String activemqUsername, String activemqPassword, String topicName, String messageBody) throws JMSException {
-        ActiveMQConnectionFactory connectionFactory = factoryCreator.createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        ConnectionFactory connectionFactory = factoryCreator.getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
 
         try (Connection producerConnection = connectionFactory.createConnection();
              Session producerSession = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -146,11 +241,414 @@ public class ActivemqMessageService {
 
             TextMessage producerMessage = producerSession.createTextMessage(messageBody);
             producer.send(producerMessage);
+        } catch (JMSException e) {
+            factoryCreator.handleConnectionFailure(activemqEndpoint, activemqUsername, activemqPassword, e);
+            throw e;
+        } finally {
+            factoryCreator.releaseConnectionFactory(connectionFactory);
+        }
+    }
+
+    @Tool(name="sendScheduledMessageToQueue", description="Send a message to a queue of an ActiveMQ message broker that the broker delivers later, using broker-side scheduling (schedulerSupport must be enabled on the broker). "
+            + "delayMs delays the first delivery, periodMs and repeat redeliver the message repeat more times periodMs apart, cron schedules it with a cron expression. Returns the JMS message ID.")
+    public String sendScheduledMessageToQueue(String activemqEndpoint, String activemqUsername, String activemqPassword, String queueName, String messageBody,
+                                              @ToolParam(required = false, description = "Delay before the first delivery in milliseconds") Long delayMs,
+                                              @ToolParam(required = false, description = "Time between repeated deliveries in milliseconds") Long periodMs,
+                                              @ToolParam(required = false, description = "Number of additional deliveries") Integer repeat,
+                                              @ToolParam(required = false, description = "Cron expression, e.g. 0 * * * *") String cron) throws JMSException {
+        validateSchedule(delayMs, periodMs, repeat);
+        ConnectionFactory connectionFactory = factoryCreator.getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+
+        try (Connection producerConnection = connectionFactory.createConnection();
+             Session producerSession = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageProducer producer = producerSession.createProducer(producerSession.createQueue(queueName))) {
+
+            producerConnection.start();
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            TextMessage producerMessage = producerSession.createTextMessage(messageBody);
+            if (delayMs != null) {
+                producerMessage.setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, delayMs);
+            }
+            if (periodMs != null) {
+                producerMessage.setLongProperty(ScheduledMessage.AMQ_SCHEDULED_PERIOD, periodMs);
+            }
+            if (repeat != null) {
+                producerMessage.setIntProperty(ScheduledMessage.AMQ_SCHEDULED_REPEAT, repeat);
+            }
+            if (cron != null && !cron.isBlank()) {
+                producerMessage.setStringProperty(ScheduledMessage.AMQ_SCHEDULED_CRON, cron);
+            }
+            producer.send(producerMessage);
+            return producerMessage.getJMSMessageID();
+        } catch (JMSException e) {
+            factoryCreator.handleConnectionFailure(activemqEndpoint, activemqUsername, activemqPassword, e);
+            throw e;
+        } finally {
+            factoryCreator.releaseConnectionFactory(connectionFactory);
+        }
+    }
+
+    @Tool(name="scheduleMessageBurstToQueue", description="Schedule messageCount copies of a message on a queue of an ActiveMQ message broker in one call. "
+            + "The broker releases them evenly over spreadMs milliseconds, starting after startDelayMs (schedulerSupport must be enabled on the broker).")
+    public String scheduleMessageBurstToQueue(String activemqEndpoint, String activemqUsername, String activemqPassword, String queueName, String messageBody,
+                                              int messageCount, long startDelayMs, long spreadMs) throws JMSException {
+        if (messageCount < 1 || messageCount > MAX_BURST_SIZE) {
+            throw new IllegalArgumentException("Message count must be between 1 and " + MAX_BURST_SIZE);
+        }
+        if (startDelayMs < 0 || spreadMs < 0) {
+            throw new IllegalArgumentException("Delays must not be negative");
+        }
+
+        ConnectionFactory connectionFactory = factoryCreator.getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+
+        try (Connection producerConnection = connectionFactory.createConnection();
+             Session producerSession = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageProducer producer = producerSession.createProducer(producerSession.createQueue(queueName))) {
+
+            producerConnection.start();
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            long lastDelay = startDelayMs;
+            for (int i = 0; i < messageCount; i++) {
+                // The first delay is startDelayMs and the last is startDelayMs + spreadMs.
+                lastDelay = messageCount > 1 ? startDelayMs + i * spreadMs / (messageCount - 1) : startDelayMs;
+                TextMessage producerMessage = producerSession.createTextMessage(messageBody);
+                producerMessage.setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, lastDelay);
+                producer.send(producerMessage);
+            }
+
+            return String.format("Scheduled %d messages on queue %s, released evenly from %d ms to %d ms",
+                                 messageCount, queueName, startDelayMs, lastDelay);
+        } catch (JMSException e) {
+            factoryCreator.handleConnectionFailure(activemqEndpoint, activemqUsername, activemqPassword, e);
+            throw e;
+        } finally {
+            factoryCreator.releaseConnectionFactory(connectionFactory);
+        }
+    }
+
+    @Tool(name="sendMessagesToQueueAdaptive", description="Send messageCount copies of a message to a queue of an ActiveMQ message broker as fast as the broker can sustain. "
+            + "Before every batch it reads the broker's MemoryPercentUsage/StorePercentUsage and the queue's MemoryPercentUsage through Jolokia (user needs to disable the CORS of Jolokia to make this work), "
+            + "and it shrinks or grows batch size and pause to stay below the target utilisation and keep send latency low, instead of blocking in producer flow control. "
+            + "A send blocked by flow control fails after " + ADAPTIVE_SEND_TIMEOUT_MS + " ms. Returns an error if the utilisation cannot be read at the start, otherwise a report of what was sent, when and why it throttled, and why it stopped early.")
+    public String sendMessagesToQueueAdaptive(String activemqEndpoint, String activemqUsername, String activemqPassword,
+                                              String jolokiaEndpoint, String jolokiaUsername, String jolokiaPassword,
+                                              String queueName, String messageBody, int messageCount,
+                                              @ToolParam(required = false, description = "Target broker utilisation in percent, default 70") Integer targetUtilisationPercent) {
+        if (!isValidJolokiaEndpoint(jolokiaEndpoint)) {
+            throw new IllegalArgumentException("Invalid Jolokia endpoint URL");
+        }
+
+        if (!isValidName(queueName)) {
+            throw new IllegalArgumentException("Invalid queue name");
+        }
+
+        if (messageCount < 1 || messageCount > MAX_ADAPTIVE_SEND_SIZE) {
+            throw new IllegalArgumentException("Message count must be between 1 and " + MAX_ADAPTIVE_SEND_SIZE);
+        }
+
+        int target = targetUtilisationPercent != null ? targetUtilisationPercent : DEFAULT_TARGET_UTILISATION_PERCENT;
+        if (target < 1 || target > 99) {
+            throw new IllegalArgumentException("Target utilisation must be between 1 and 99 percent");
+        }
+
+        String utilisationRequest = createUtilisationRequest(queueName);
+        int utilisation;
+        try {
+            // Fail fast, so a misconfigured Jolokia is not reported as a broker that never has room.
+            utilisation = readBrokerUtilisation(jolokiaEndpoint, jolokiaUsername, jolokiaPassword, utilisationRequest);
+        } catch (Exception e) {
+            return "Error reading broker utilisation: " + e.getMessage();
+        }
+
+        AdaptiveSendController controller = new AdaptiveSendController(target);
+        // A dedicated connection, so the send timeout does not leak into the pooled connections of other tool calls.
+        ActiveMQConnectionFactory connectionFactory = factoryCreator.createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        // Producer flow control can still block a send in the middle of a batch; fail it instead of hanging.
+        connectionFactory.setSendTimeout(ADAPTIVE_SEND_TIMEOUT_MS);
+        long startedAt = System.nanoTime();
+        int sent = 0;
+        String stopReason = null;
+
+        try (Connection producerConnection = connectionFactory.createConnection();
+             Session producerSession = producerConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageProducer producer = producerSession.createProducer(producerSession.createQueue(queueName))) {
+
+            producerConnection.start();
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            while (sent < messageCount) {
+                if (controller.beforeBatch(elapsedMs(startedAt), utilisation)) {
+                    int batch = Math.min(controller.getBatchSize(), messageCount - sent);
+                    long batchStartedAt = System.nanoTime();
+                    for (int i = 0; i < batch; i++) {
+                        producer.send(producerSession.createTextMessage(messageBody));
+                        sent++;
+                    }
+                    double averageLatencyMs = (System.nanoTime() - batchStartedAt) / 1_000_000.0 / batch;
+                    controller.afterBatch(elapsedMs(startedAt), averageLatencyMs);
+                } else if (controller.isStalled()) {
+                    stopReason = String.format("gave up after %d consecutive throttles, last: %s",
+                                               AdaptiveSendController.MAX_CONSECUTIVE_THROTTLES, controller.getLastThrottleReason());
+                    break;
+                }
+
+                if (sent < messageCount) {
+                    if (controller.getPauseMs() > 0) {
+                        Thread.sleep(controller.getPauseMs());
+                    }
+                    utilisation = readBrokerUtilisationOrUnknown(jolokiaEndpoint, jolokiaUsername, jolokiaPassword, utilisationRequest);
+                }
+            }
+        } catch (JMSException e) {
+            // Includes a send that timed out in producer flow control; report what was sent so far.
+            stopReason = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopReason = "interrupted";
+        }
+
+        long elapsed = elapsedMs(startedAt);
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("requested", messageCount);
+        report.put("sent", sent);
+        report.put("elapsedMs", elapsed);
+        report.put("messagesPerSecond", elapsed > 0 ? sent * 1000.0 / elapsed : sent);
+        report.put("finalBatchSize", controller.getBatchSize());
+        report.put("finalPauseMs", controller.getPauseMs());
+        report.put("throttleCount", controller.getThrottleCount());
+        if (stopReason != null) {
+            report.put("stopReason", stopReason);
+        }
+        report.set("throttleEvents", objectMapper.valueToTree(controller.getThrottleEvents()));
+        return report.toString();
+    }
+
+    @Tool(name = "listScheduledJobs", description = "List the jobs waiting in the ActiveMQ broker's job scheduler using Jolokia REST API, user needs to disable the CORS of Jolokia to make this work.")
+    public String listScheduledJobs(String jolokiaEndpoint, String username, String password) {
+        if (!isValidJolokiaEndpoint(jolokiaEndpoint)) {
+            throw new IllegalArgumentException("Invalid Jolokia endpoint URL");
+        }
+
+        RestTemplate restTemplate = createRestTemplate();
+
+        HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders(username, password));
+
+        String sanitizedEndpoint = sanitizeEndpoint(jolokiaEndpoint);
+
+        String url = String.format("%s/read/%s/AllJobs", sanitizedEndpoint, JOB_SCHEDULER_MBEAN);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    entity,
+                    String.class
+            );
+
+            return response.getBody();
+        } catch (Exception e) {
+            return "Error listing scheduled jobs: " + e.getMessage();
+        }
+    }
+
+    @Tool(name = "cancelScheduledJob", description = "Cancel a job in the ActiveMQ broker's job scheduler by its job ID (as returned by listScheduledJobs) using Jolokia REST API, user needs to disable the CORS of Jolokia to make this work.")
+    public String cancelScheduledJob(String jolokiaEndpoint, String username, String password, String jobId) {
+        if (!isValidJolokiaEndpoint(jolokiaEndpoint)) {
+            throw new IllegalArgumentException("Invalid Jolokia endpoint URL");
+        }
+
+        if (jobId == null || jobId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Invalid job ID");
+        }
+
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("type", "exec");
+        request.put("mbean", JOB_SCHEDULER_MBEAN);
+        request.put("operation", "removeJob");
+        request.putArray("arguments").add(jobId);
+
+        try {
+            return postJolokiaRequests(jolokiaEndpoint, username, password, request.toString());
+        } catch (Exception e) {
+            return "Error cancelling scheduled job: " + e.getMessage();
         }
     }
 
+    @Tool(name = "getFailoverStatistics", description = "Get the failover history of the failover:(...) endpoints used by this MCP server: number of failovers, last and longest failover duration in milliseconds, and whether a failover is in progress.")
+    public String getFailoverStatistics() {
+        try {
+            return objectMapper.writeValueAsString(factoryCreator.getFailoverStatistics());
+        } catch (Exception e) {
+            return "Error reading failover statistics: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Posts a Jolokia bulk request (a JSON array of read/exec operations) in a single HTTP call
+     * and returns the raw JSON array response.
+     */
+    String postJolokiaRequests(String jolokiaEndpoint, String username, String password, String requestBody) {
+        if (!isValidJolokiaEndpoint(jolokiaEndpoint)) {
+            throw new IllegalArgumentException("Invalid Jolokia endpoint URL");
+        }
+
+        RestTemplate restTemplate = createRestTemplate();
+
+        HttpHeaders headers = createAuthHeaders(username, password);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                sanitizeEndpoint(jolokiaEndpoint),
+                HttpMethod.POST,
+                entity,
+                String.class
+        );
+
+        return response.getBody();
+    }
+
     protected RestTemplate createRestTemplate(){
-        return new RestTemplate();
+        // Bounded so that a hung Jolokia call cannot stall a tool call or the resource refresh forever.
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(JOLOKIA_CONNECT_TIMEOUT_MS);
+        requestFactory.setReadTimeout(JOLOKIA_READ_TIMEOUT_MS);
+        return new RestTemplate(requestFactory);
+    }
+
+    private HttpHeaders createAuthHeaders(String username, String password) {
+        HttpHeaders headers = new HttpHeaders();
+
+        String auth = username + ":" + password;
+        String encodedAuth = Base64.getEncoder()
+                                   .encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+        String authHeader = "Basic " + encodedAuth;
+        headers.set("Authorization", authHeader);
+
+        return headers;
+    }
+
+    private JsonNode readSubscriptions(String jolokiaEndpoint, String username, String password, String request) throws IOException {
+        JsonNode response = objectMapper.readTree(postJolokiaRequests(jolokiaEndpoint, username, password, request));
+        int status = response.path("status").asInt();
+        if (status == 404) {
+            // Jolokia answers a pattern read without matches with 404, which just means no consumers.
+            return objectMapper.createObjectNode();
+        }
+        if (status != 200) {
+            throw new IOException(response.path("error").asText("Jolokia status " + status));
+        }
+        return response.path("value");
+    }
+
+    private String createUtilisationRequest(String queueName) {
+        ArrayNode requests = objectMapper.createArrayNode();
+
+        ObjectNode broker = requests.addObject();
+        broker.put("type", "read");
+        broker.put("mbean", "org.apache.activemq:type=Broker,brokerName=localhost");
+        broker.putArray("attribute").add("MemoryPercentUsage").add("StorePercentUsage");
+
+        ObjectNode queue = requests.addObject();
+        queue.put("type", "read");
+        queue.put("mbean", String.format("org.apache.activemq:type=Broker,brokerName=localhost,destinationType=Queue,destinationName=%s", queueName));
+        queue.putArray("attribute").add("MemoryPercentUsage");
+
+        return requests.toString();
+    }
+
+    /**
+     * Returns the highest memory/store usage in percent of the broker and the queue.
+     *
+     * @throws IOException if Jolokia did not return the usage of the broker
+     */
+    private int readBrokerUtilisation(String jolokiaEndpoint, String username, String password, String request) throws IOException {
+        JsonNode responses = objectMapper.readTree(postJolokiaRequests(jolokiaEndpoint, username, password, request));
+        if (!responses.isArray() || responses.isEmpty()) {
+            throw new IOException("Unexpected Jolokia response");
+        }
+        JsonNode broker = responses.get(0);
+        if (broker.path("status").asInt() != 200) {
+            throw new IOException(broker.path("error").asText("Jolokia status " + broker.path("status").asInt()));
+        }
+
+        int utilisation = -1;
+        for (JsonNode response : responses) {
+            if (response.path("status").asInt() != 200) {
+                // A queue that does not exist yet has no MBean, the broker read still counts.
+                continue;
+            }
+            for (JsonNode value : response.path("value")) {
+                utilisation = Math.max(utilisation, value.asInt());
+            }
+        }
+        return utilisation;
+    }
+
+    /**
+     * Like {@link #readBrokerUtilisation}, but returns -1 if the utilisation could not be read, which
+     * the {@link AdaptiveSendController} treats as a reason to back off.
+     */
+    private int readBrokerUtilisationOrUnknown(String jolokiaEndpoint, String username, String password, String request) {
+        try {
+            return readBrokerUtilisation(jolokiaEndpoint, username, password, request);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private ObjectNode describeConsumerLag(String objectName, JsonNode subscription, JsonNode previous, long elapsedMs) {
+        long prefetchSize = subscription.path("PrefetchSize").asLong();
+        long dispatched = subscription.path("DispatchedCounter").asLong();
+        long acknowledged = subscription.path("DequeueCounter").asLong();
+        long inFlight = subscription.path("DispatchedQueueSize").asLong();
+
+        ObjectNode consumer = objectMapper.createObjectNode();
+        consumer.put("consumerId", consumerId(objectName));
+        consumer.put("objectName", objectName);
+        consumer.put("clientId", subscription.path("ClientId").asText());
+        consumer.put("connectionId", subscription.path("ConnectionId").asText());
+        consumer.put("slowConsumer", subscription.path("SlowConsumer").asBoolean());
+        consumer.put("prefetchSize", prefetchSize);
+        consumer.put("dispatched", dispatched);
+        consumer.put("acknowledged", acknowledged);
+        consumer.put("inFlight", inFlight);
+        consumer.put("lag", dispatched - acknowledged);
+        consumer.put("prefetchFill", prefetchSize > 0 ? Math.min(1.0, (double) inFlight / prefetchSize) : 0.0);
+
+        if (previous != null && elapsedMs > 0) {
+            long processed = acknowledged - previous.path("DequeueCounter").asLong();
+            double ratePerSecond = Math.max(0, processed) * 1000.0 / elapsedMs;
+            consumer.put("ratePerSecond", ratePerSecond);
+            if (ratePerSecond > 0) {
+                consumer.put("estimatedDrainSeconds", inFlight / ratePerSecond);
+            } else if (inFlight > 0) {
+                consumer.put("stuck", true);
+            }
+        }
+        return consumer;
+    }
+
+    private static String consumerId(String objectName) {
+        try {
+            String consumerId = new ObjectName(objectName).getKeyProperty("consumerId");
+            return consumerId != null ? consumerId : "";
+        } catch (MalformedObjectNameException e) {
+            return "";
+        }
+    }
+
+    private void validateSchedule(Long delayMs, Long periodMs, Integer repeat) {
+        if ((delayMs != null && delayMs < 0) || (periodMs != null && periodMs < 0) || (repeat != null && repeat < 0)) {
+            throw new IllegalArgumentException("Schedule values must not be negative");
+        }
     }
 
     private boolean isValidJolokiaEndpoint(String endpoint) {
@@ -191,7 +689,7 @@ public class ActivemqMessageService {
         return allowedHosts.contains(host.toLowerCase());
     }
 
-    private boolean isValidName(String name) {
+    static boolean isValidName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return false;
         }
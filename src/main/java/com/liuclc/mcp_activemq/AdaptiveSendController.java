@@ -0,0 +1,129 @@
+package com.liuclc.mcp_activemq;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides batch size and pause between batches of an adaptive send. Batches grow additively while
+ * the broker stays below the target utilisation and send latency stays near its best observed
+ * value, and are halved (with a doubling pause) as soon as either one is exceeded, so the sender
+ * backs off before producer flow control blocks it.
+ */
+class AdaptiveSendController {
+    static final int INITIAL_BATCH_SIZE = 10;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final long INITIAL_PAUSE_MS = 100;
+    static final long MAX_PAUSE_MS = 5000;
+    static final int HEADROOM_PERCENT = 10;
+    static final double LATENCY_FACTOR = 4.0;
+    static final double LATENCY_FLOOR_MS = 20.0;
+    static final int MAX_CONSECUTIVE_THROTTLES = 20;
+    static final int MAX_REPORTED_EVENTS = 50;
+
+    private final int targetUtilisationPercent;
+    private final List<Map<String, Object>> throttleEvents = new ArrayList<>();
+
+    private int batchSize = INITIAL_BATCH_SIZE;
+    private long pauseMs;
+    private double baselineLatencyMs = -1;
+    private int throttleCount;
+    private int consecutiveThrottles;
+    private boolean lastBatchHealthy;
+    private String lastThrottleReason;
+
+    AdaptiveSendController(int targetUtilisationPercent) {
+        this.targetUtilisationPercent = targetUtilisationPercent;
+    }
+
+    /**
+     * Checks the broker utilisation before a batch. The utilisation is read after the previous batch
+     * was sent, so this is also where a healthy previous batch lets the next one grow.
+     *
+     * @param utilisationPercent highest memory/store usage of the broker, or -1 if it could not be read
+     * @return whether the next batch may be sent; if not, wait {@link #getPauseMs()} and check again
+     */
+    boolean beforeBatch(long elapsedMs, int utilisationPercent) {
+        boolean grow = lastBatchHealthy;
+        lastBatchHealthy = false;
+
+        if (utilisationPercent < 0) {
+            throttle(elapsedMs, "broker utilisation could not be read");
+            return false;
+        }
+        if (utilisationPercent >= targetUtilisationPercent) {
+            throttle(elapsedMs, String.format("broker utilisation %d%% reached target %d%%", utilisationPercent, targetUtilisationPercent));
+            return false;
+        }
+
+        if (grow && utilisationPercent < targetUtilisationPercent - HEADROOM_PERCENT) {
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize + INITIAL_BATCH_SIZE);
+            pauseMs = pauseMs / 2 < 10 ? 0 : pauseMs / 2;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the send latency of a batch that was just sent.
+     */
+    void afterBatch(long elapsedMs, double averageLatencyMs) {
+        if (baselineLatencyMs >= 0 && averageLatencyMs > Math.max(LATENCY_FLOOR_MS, baselineLatencyMs * LATENCY_FACTOR)) {
+            throttle(elapsedMs, String.format("send latency %.1f ms exceeded %.0fx the best observed %.1f ms",
+                                              averageLatencyMs, LATENCY_FACTOR, baselineLatencyMs));
+            return;
+        }
+
+        baselineLatencyMs = baselineLatencyMs < 0 ? averageLatencyMs : Math.min(baselineLatencyMs, averageLatencyMs);
+        consecutiveThrottles = 0;
+        lastBatchHealthy = true;
+    }
+
+    private void throttle(long elapsedMs, String reason) {
+        batchSize = Math.max(1, batchSize / 2);
+        pauseMs = pauseMs == 0 ? INITIAL_PAUSE_MS : Math.min(MAX_PAUSE_MS, pauseMs * 2);
+        throttleCount++;
+        consecutiveThrottles++;
+        lastThrottleReason = reason;
+
+        if (throttleEvents.size() < MAX_REPORTED_EVENTS) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("atMs", elapsedMs);
+            event.put("reason", reason);
+            event.put("batchSize", batchSize);
+            event.put("pauseMs", pauseMs);
+            throttleEvents.add(event);
+        }
+    }
+
+    /**
+     * Whether the broker has stayed over its limits for so long that the send should give up
+     * instead of waiting on it indefinitely.
+     */
+    boolean isStalled() {
+        return consecutiveThrottles >= MAX_CONSECUTIVE_THROTTLES;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    long getPauseMs() {
+        return pauseMs;
+    }
+
+    int getThrottleCount() {
+        return throttleCount;
+    }
+
+    /**
+     * Reason of the most recent throttle, also once the reported events are capped.
+     */
+    String getLastThrottleReason() {
+        return lastThrottleReason;
+    }
+
+    List<Map<String, Object>> getThrottleEvents() {
+        return throttleEvents;
+    }
+}
@@ -1,11 +1,67 @@
 package com.liuclc.mcp_activemq;
 
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.JMSSecurityException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.jms.pool.PooledConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ConnectionFactoryCreator {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionFactoryCreator.class);
+    private static final String FAILOVER_PREFIX = "failover:";
+
+    private final FailoverSettings failoverSettings;
+    private final Map<String, String> failoverOptions;
+    // Least recently used first, so the endpoint an agent stopped using is the one that gets closed.
+    private final Map<String, PooledEndpoint> failoverConnectionFactories = new LinkedHashMap<>(16, 0.75f, true);
+    // Factories handed out to tool calls that have not released them yet, guarded by failoverConnectionFactories.
+    private final Map<ConnectionFactory, PooledEndpoint> inUse = new IdentityHashMap<>();
+    private final Map<String, FailoverTracker> failoverTrackers = new ConcurrentHashMap<>();
+
+    public ConnectionFactoryCreator() {
+        this(new FailoverSettings());
+    }
+
+    @Autowired
+    public ConnectionFactoryCreator(FailoverSettings failoverSettings) {
+        this.failoverSettings = failoverSettings;
+
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("initialReconnectDelay", String.valueOf(failoverSettings.getInitialReconnectDelayMs()));
+        options.put("maxReconnectDelay", String.valueOf(failoverSettings.getMaxReconnectDelayMs()));
+        options.put("useExponentialBackOff", "true");
+        options.put("backOffMultiplier", String.valueOf(failoverSettings.getBackoffMultiplier()));
+        options.put("maxReconnectAttempts", String.valueOf(failoverSettings.getMaxReconnectAttempts()));
+        options.put("startupMaxReconnectAttempts", String.valueOf(failoverSettings.getStartupMaxReconnectAttempts()));
+        // Without a timeout a send blocks for as long as the failover transport keeps reconnecting.
+        options.put("timeout", String.valueOf(failoverSettings.getTimeoutMs()));
+        options.put("randomize", String.valueOf(failoverSettings.isRandomize()));
+        if (failoverSettings.isBackup()) {
+            options.put("backup", "true");
+            options.put("backupPoolSize", "1");
+        }
+        this.failoverOptions = options;
+    }
+
     public PooledConnectionFactory createPooledConnectionFactory(ActiveMQConnectionFactory connectionFactory) {
         try {
             final PooledConnectionFactory pooledConnectionFactory = new PooledConnectionFactory();
@@ -23,7 +79,7 @@ public class ConnectionFactoryCreator {
             String activemqPassword) {
         try {
             final ActiveMQConnectionFactory connectionFactory =
-                    new ActiveMQConnectionFactory(activemqEndpoint);
+                    new ActiveMQConnectionFactory(tuneFailoverEndpoint(activemqEndpoint));
             connectionFactory.setUserName(activemqUsername);
             connectionFactory.setPassword(activemqPassword);
             return connectionFactory;
@@ -31,4 +87,261 @@ public class ConnectionFactoryCreator {
             throw new RuntimeException("Failed to create ActiveMQConnectionFactory", e);
         }
     }
+
+    /**
+     * Returns the connection factory to use for one tool call. Plain endpoints get a fresh factory.
+     * Failover endpoints share a pooled factory per endpoint and user, so connections and sessions
+     * stay open between tool calls and the failover transport resumes them after a reconnect
+     * instead of every call reconnecting from scratch.
+     * <p>
+     * Every factory returned here must be handed back with {@link #releaseConnectionFactory}, so a
+     * pooled factory that is evicted meanwhile is only stopped once no tool call uses it any more.
+     */
+    public ConnectionFactory getConnectionFactory(
+            String activemqEndpoint,
+            String activemqUsername,
+            String activemqPassword) {
+        if (!isFailoverEndpoint(activemqEndpoint)) {
+            return createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        }
+
+        PooledEndpoint pooledEndpoint;
+        PooledConnectionFactory evicted = null;
+        synchronized (failoverConnectionFactories) {
+            pooledEndpoint = failoverConnectionFactories.computeIfAbsent(
+                    failoverKey(activemqEndpoint, activemqUsername, activemqPassword), ignored -> {
+                ActiveMQConnectionFactory connectionFactory =
+                        createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+                connectionFactory.setTransportListener(
+                        failoverTrackers.computeIfAbsent(activemqEndpoint, FailoverTracker::new));
+                PooledConnectionFactory pooledConnectionFactory = createPooledConnectionFactory(connectionFactory);
+                // One warm connection is enough for tool calls and is all that has to fail over.
+                pooledConnectionFactory.setMaxConnections(1);
+                // The pool default closes a connection after 30 s idle, which would undo keeping it warm.
+                pooledConnectionFactory.setIdleTimeout(failoverSettings.getIdleTimeoutMs());
+                pooledConnectionFactory.start();
+                return new PooledEndpoint(activemqEndpoint, pooledConnectionFactory);
+            });
+            pooledEndpoint.users++;
+            inUse.put(pooledEndpoint.connectionFactory, pooledEndpoint);
+
+            if (failoverConnectionFactories.size() > failoverSettings.getMaxPooledEndpoints()) {
+                Iterator<PooledEndpoint> eldest = failoverConnectionFactories.values().iterator();
+                PooledEndpoint leastRecentlyUsed = eldest.next();
+                eldest.remove();
+                evicted = retire(leastRecentlyUsed);
+            }
+        }
+        // Stopping closes the broker connection, which can block on an unreachable broker.
+        stopQuietly(evicted);
+        return pooledEndpoint.connectionFactory;
+    }
+
+    /**
+     * Hands back a factory returned by {@link #getConnectionFactory} at the end of a tool call, and
+     * stops it if it was evicted while the call was using it.
+     */
+    public void releaseConnectionFactory(ConnectionFactory connectionFactory) {
+        PooledConnectionFactory retired = null;
+        synchronized (failoverConnectionFactories) {
+            PooledEndpoint pooledEndpoint = inUse.get(connectionFactory);
+            if (pooledEndpoint == null) {
+                return;
+            }
+            if (--pooledEndpoint.users == 0) {
+                inUse.remove(connectionFactory);
+                if (pooledEndpoint.retired) {
+                    retired = pooledEndpoint.connectionFactory;
+                }
+            }
+        }
+        stopQuietly(retired);
+    }
+
+    /**
+     * Closes and forgets the pooled factory of a failover endpoint whose connection was rejected by
+     * the broker's security checks, so wrong credentials do not keep a broker connection open.
+     */
+    public void handleConnectionFailure(
+            String activemqEndpoint,
+            String activemqUsername,
+            String activemqPassword,
+            JMSException failure) {
+        if (!isFailoverEndpoint(activemqEndpoint) || !isSecurityFailure(failure)) {
+            return;
+        }
+
+        PooledConnectionFactory rejected = null;
+        synchronized (failoverConnectionFactories) {
+            PooledEndpoint pooledEndpoint = failoverConnectionFactories.remove(
+                    failoverKey(activemqEndpoint, activemqUsername, activemqPassword));
+            if (pooledEndpoint != null) {
+                rejected = retire(pooledEndpoint);
+            }
+        }
+        stopQuietly(rejected);
+    }
+
+    /**
+     * Marks a pooled endpoint that was just removed from the pool as retired and forgets its failover
+     * tracker once no other user of the endpoint is pooled. Must hold the pool lock.
+     *
+     * @return the factory to stop once the lock is released, or null if a tool call still uses it
+     */
+    private PooledConnectionFactory retire(PooledEndpoint pooledEndpoint) {
+        pooledEndpoint.retired = true;
+        boolean endpointStillPooled = failoverConnectionFactories.values().stream()
+                .anyMatch(other -> other.endpoint.equals(pooledEndpoint.endpoint));
+        if (!endpointStillPooled) {
+            failoverTrackers.remove(pooledEndpoint.endpoint);
+        }
+        return pooledEndpoint.users == 0 ? pooledEndpoint.connectionFactory : null;
+    }
+
+    private static void stopQuietly(PooledConnectionFactory connectionFactory) {
+        if (connectionFactory == null) {
+            return;
+        }
+        try {
+            connectionFactory.stop();
+        } catch (Exception e) {
+            logger.warn("Failed to close pooled failover connection: {}", e.getMessage());
+        }
+    }
+
+    int getFailoverTrackerCount() {
+        return failoverTrackers.size();
+    }
+
+    int getPooledEndpointCount() {
+        synchronized (failoverConnectionFactories) {
+            return failoverConnectionFactories.size();
+        }
+    }
+
+    /**
+     * Failover timings of every failover endpoint used so far.
+     */
+    public List<Map<String, Object>> getFailoverStatistics() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+        for (FailoverTracker tracker : failoverTrackers.values()) {
+            statistics.add(tracker.snapshot());
+        }
+        return statistics;
+    }
+
+    FailoverTracker getFailoverTracker(String activemqEndpoint) {
+        return failoverTrackers.get(activemqEndpoint);
+    }
+
+    @PreDestroy
+    public void close() {
+        List<PooledConnectionFactory> pooled = new ArrayList<>();
+        synchronized (failoverConnectionFactories) {
+            failoverConnectionFactories.values().forEach(pooledEndpoint -> pooled.add(pooledEndpoint.connectionFactory));
+            inUse.values().forEach(pooledEndpoint -> {
+                if (pooledEndpoint.retired) {
+                    pooled.add(pooledEndpoint.connectionFactory);
+                }
+            });
+            failoverConnectionFactories.clear();
+            inUse.clear();
+            failoverTrackers.clear();
+        }
+        pooled.forEach(ConnectionFactoryCreator::stopQuietly);
+    }
+
+    /**
+     * Adds the configured reconnect and backoff options to a {@code failover:} endpoint. Options
+     * already present in the endpoint win over the configured ones.
+     */
+    String tuneFailoverEndpoint(String activemqEndpoint) {
+        if (!isFailoverEndpoint(activemqEndpoint)) {
+            return activemqEndpoint;
+        }
+
+        String composite = activemqEndpoint.substring(FAILOVER_PREFIX.length());
+        // failover://(tcp://a,tcp://b) is as valid as failover:(tcp://a,tcp://b), see URISupport.parseComposite.
+        if (composite.startsWith("//")) {
+            composite = composite.substring(2);
+        }
+        if (!composite.startsWith("(")) {
+            if (composite.contains("?")) {
+                // Options of the single nested URI and of the failover transport cannot be told apart.
+                return activemqEndpoint;
+            }
+            composite = "(" + composite + ")";
+        }
+
+        int close = composite.lastIndexOf(')');
+        if (close < 0) {
+            return activemqEndpoint;
+        }
+
+        Map<String, String> options = new LinkedHashMap<>();
+        String query = composite.substring(close + 1);
+        if (query.startsWith("?")) {
+            for (String option : query.substring(1).split("&")) {
+                if (option.isEmpty()) {
+                    continue;
+                }
+                int equals = option.indexOf('=');
+                options.put(equals < 0 ? option : option.substring(0, equals),
+                            equals < 0 ? "" : option.substring(equals + 1));
+            }
+        }
+        failoverOptions.forEach(options::putIfAbsent);
+
+        StringBuilder tuned = new StringBuilder(FAILOVER_PREFIX).append(composite, 0, close + 1).append('?');
+        options.forEach((name, value) -> tuned.append(name).append('=').append(value).append('&'));
+        tuned.setLength(tuned.length() - 1);
+        return tuned.toString();
+    }
+
+    /**
+     * Pool key of an endpoint and user. The password only goes in as a hash, so the key set never
+     * holds it in plain text.
+     */
+    private static String failoverKey(String activemqEndpoint, String activemqUsername, String activemqPassword) {
+        try {
+            byte[] passwordHash = MessageDigest.getInstance("SHA-256").digest(
+                    String.valueOf(activemqPassword).getBytes(StandardCharsets.UTF_8));
+            return activemqEndpoint + "\u0000" + activemqUsername + "\u0000" + HexFormat.of().formatHex(passwordHash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isSecurityFailure(Throwable failure) {
+        for (int depth = 0; failure != null && depth < 10; depth++) {
+            if (failure instanceof JMSSecurityException || failure instanceof SecurityException) {
+                return true;
+            }
+            Throwable next = failure.getCause();
+            if (next == null && failure instanceof JMSException jmsException) {
+                next = jmsException.getLinkedException();
+            }
+            failure = next;
+        }
+        return false;
+    }
+
+    private boolean isFailoverEndpoint(String activemqEndpoint) {
+        return activemqEndpoint != null && activemqEndpoint.startsWith(FAILOVER_PREFIX);
+    }
+
+    /**
+     * A pooled failover factory and the number of tool calls currently using it.
+     */
+    private static final class PooledEndpoint {
+        private final String endpoint;
+        private final PooledConnectionFactory connectionFactory;
+        private int users;
+        private boolean retired;
+
+        PooledEndpoint(String endpoint, PooledConnectionFactory connectionFactory) {
+            this.endpoint = endpoint;
+            this.connectionFactory = connectionFactory;
+        }
+    }
 }
@@ -0,0 +1,312 @@
+package com.liuclc.mcp_activemq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps a shared, periodically refreshed snapshot of destination statistics and publishes each
+ * watched destination as an MCP resource ({@code activemq://{broker}/queue/{name}} or
+ * {@code activemq://{broker}/topic/{name}}).
+ * <p>
+ * All watched destinations are read with a single Jolokia bulk request per refresh. A resource
+ * update notification is only sent when a tracked attribute has moved by at least its configured
+ * delta since the last notification, so watching agents are not woken up by every small change.
+ * Update notifications go to every connected session, as resource subscriptions are not advertised.
+ */
+@Service
+public class DestinationStatsCache {
+    private static final Logger logger = LoggerFactory.getLogger(DestinationStatsCache.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static final List<String> TRACKED_ATTRIBUTES = List.of(
+            "QueueSize",
+            "EnqueueCount",
+            "DequeueCount",
+            "ConsumerCount",
+            "ProducerCount",
+            "InFlightCount",
+            "MemoryPercentUsage"
+    );
+
+    private final ActivemqMessageService messageService;
+    private final ObjectProvider<McpSyncServer> mcpSyncServer;
+    private final String jolokiaEndpoint;
+    private final String username;
+    private final String password;
+    private final String brokerName;
+    private final List<WatchedDestination> destinations;
+    private final long refreshIntervalMs;
+    private final Map<String, Long> deltas;
+    private final boolean updateNotificationEnabled;
+
+    private final Map<String, Map<String, Long>> currentValues = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> notifiedValues = new ConcurrentHashMap<>();
+    private final Map<String, Long> refreshedAt = new ConcurrentHashMap<>();
+    private final Map<String, String> errors = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public DestinationStatsCache(ActivemqMessageService messageService,
+                                 ObjectProvider<McpSyncServer> mcpSyncServer,
+                                 @Value("${activemq.jolokia.endpoint:}") String jolokiaEndpoint,
+                                 @Value("${activemq.jolokia.username:}") String username,
+                                 @Value("${activemq.jolokia.password:}") String password,
+                                 @Value("${activemq.broker-name:localhost}") String brokerName,
+                                 ResourceSettings settings) {
+        this.messageService = messageService;
+        this.mcpSyncServer = mcpSyncServer;
+        this.jolokiaEndpoint = jolokiaEndpoint;
+        this.username = username;
+        this.password = password;
+        this.brokerName = brokerName;
+        this.refreshIntervalMs = settings.getRefreshIntervalMs();
+        this.deltas = parseDeltas(settings.getDeltas());
+        this.updateNotificationEnabled = settings.isUpdateNotification();
+
+        List<WatchedDestination> watched = new ArrayList<>();
+        for (String queue : splitList(settings.getQueues())) {
+            watched.add(new WatchedDestination("Queue", queue));
+        }
+        for (String topic : splitList(settings.getTopics())) {
+            watched.add(new WatchedDestination("Topic", topic));
+        }
+        this.destinations = Collections.unmodifiableList(watched);
+    }
+
+    /**
+     * Starts refreshing once the application is ready, so the refresh thread never looks up the
+     * {@link McpSyncServer} while the beans it depends on (including this one) are still being created.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (destinations.isEmpty() || jolokiaEndpoint.isBlank()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "activemq-stats-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public List<McpServerFeatures.SyncResourceSpecification> resourceSpecifications() {
+        List<McpServerFeatures.SyncResourceSpecification> specifications = new ArrayList<>();
+        for (WatchedDestination destination : destinations) {
+            McpSchema.Resource resource = new McpSchema.Resource(
+                    destination.uri(brokerName),
+                    destination.type().toLowerCase() + "/" + destination.name(),
+                    "Statistics of the ActiveMQ " + destination.type().toLowerCase() + " " + destination.name()
+                            + ", refreshed every " + refreshIntervalMs + " ms",
+                    "application/json",
+                    null);
+
+            specifications.add(new McpServerFeatures.SyncResourceSpecification(
+                    resource,
+                    (exchange, request) -> new McpSchema.ReadResourceResult(List.of(
+                            new McpSchema.TextResourceContents(request.uri(), "application/json", read(request.uri()))))));
+        }
+        return specifications;
+    }
+
+    /**
+     * Returns the cached statistics of the destination behind the given resource URI as JSON. A
+     * destination that has not been refreshed yet is returned without values; the read never waits
+     * on Jolokia. If the last refresh of the destination failed, the previous values are returned
+     * together with the error.
+     */
+    public String read(String uri) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("uri", uri);
+        Long timestamp = refreshedAt.get(uri);
+        if (timestamp != null) {
+            result.put("refreshedAt", timestamp);
+        }
+        String error = errors.get(uri);
+        if (error != null) {
+            result.put("error", error);
+        }
+        ObjectNode values = result.putObject("value");
+        currentValues.getOrDefault(uri, Map.of()).forEach(values::put);
+        return result.toString();
+    }
+
+    /**
+     * Reads all watched destinations with one Jolokia bulk request and notifies subscribers of the
+     * resources whose tracked attributes crossed their configured delta.
+     */
+    public synchronized void refresh() {
+        if (destinations.isEmpty() || jolokiaEndpoint.isBlank()) {
+            return;
+        }
+
+        try {
+            ArrayNode requests = objectMapper.createArrayNode();
+            for (WatchedDestination destination : destinations) {
+                ObjectNode request = requests.addObject();
+                request.put("type", "read");
+                request.put("mbean", destination.mbean(brokerName));
+                ArrayNode attributes = request.putArray("attribute");
+                TRACKED_ATTRIBUTES.forEach(attributes::add);
+            }
+
+            String response = messageService.postJolokiaRequests(jolokiaEndpoint, username, password, requests.toString());
+            JsonNode responses = objectMapper.readTree(response);
+            long now = System.currentTimeMillis();
+
+            for (int i = 0; i < destinations.size() && i < responses.size(); i++) {
+                JsonNode entry = responses.get(i);
+                String uri = destinations.get(i).uri(brokerName);
+                if (entry.path("status").asInt() != 200) {
+                    // e.g. the destination was deleted: keep the last values but show why they are stale
+                    recordError(uri, entry.path("error").asText("Jolokia status " + entry.path("status").asInt()));
+                    continue;
+                }
+
+                Map<String, Long> values = new LinkedHashMap<>();
+                for (String attribute : TRACKED_ATTRIBUTES) {
+                    JsonNode value = entry.path("value").path(attribute);
+                    if (value.isNumber()) {
+                        values.put(attribute, value.asLong());
+                    }
+                }
+
+                currentValues.put(uri, values);
+                refreshedAt.put(uri, now);
+                boolean recovered = errors.remove(uri) != null;
+
+                if (recovered || crossedDelta(notifiedValues.get(uri), values)) {
+                    notifiedValues.put(uri, values);
+                    notifyUpdated(uri);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refresh destination statistics: {}", e.getMessage());
+            for (WatchedDestination destination : destinations) {
+                recordError(destination.uri(brokerName), "Failed to refresh: " + e.getMessage());
+            }
+        }
+    }
+
+    private void recordError(String uri, String error) {
+        if (!error.equals(errors.put(uri, error))) {
+            notifyUpdated(uri);
+        }
+    }
+
+    private boolean crossedDelta(Map<String, Long> previous, Map<String, Long> values) {
+        if (previous == null) {
+            return true;
+        }
+
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            Long before = previous.get(entry.getKey());
+            if (before == null) {
+                return true;
+            }
+            long delta = deltas.getOrDefault(entry.getKey(), Long.MAX_VALUE);
+            if (Math.abs(entry.getValue() - before) >= delta) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifyUpdated(String uri) {
+        if (!updateNotificationEnabled) {
+            return;
+        }
+
+        McpSyncServer server = mcpSyncServer.getIfAvailable();
+        if (server == null) {
+            return;
+        }
+
+        try {
+            server.notifyResourcesUpdated(new McpSchema.ResourcesUpdatedNotification(uri));
+        } catch (Exception e) {
+            logger.warn("Failed to notify resource update for {}: {}", uri, e.getMessage());
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!ActivemqMessageService.isValidName(trimmed)) {
+                throw new IllegalArgumentException("Invalid destination name: " + trimmed);
+            }
+            result.add(trimmed);
+        }
+        return result;
+    }
+
+    private static Map<String, Long> parseDeltas(String value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String item : value.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            String[] pair = item.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Malformed entry in resource deltas: " + item.trim()
+                        + ", expected Attribute:delta");
+            }
+            if (!TRACKED_ATTRIBUTES.contains(pair[0].trim())) {
+                throw new IllegalArgumentException("Unknown attribute in resource deltas: " + pair[0].trim()
+                        + ", expected one of " + Arrays.toString(TRACKED_ATTRIBUTES.toArray()));
+            }
+            result.put(pair[0].trim(), Long.parseLong(pair[1].trim()));
+        }
+        return result;
+    }
+
+    record WatchedDestination(String type, String name) {
+        String uri(String brokerName) {
+            return String.format("activemq://%s/%s/%s", brokerName, type.toLowerCase(), name);
+        }
+
+        String mbean(String brokerName) {
+            return String.format("org.apache.activemq:type=Broker,brokerName=%s,destinationType=%s,destinationName=%s",
+                                 brokerName, type, name);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.liuclc.mcp_activemq;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconnect tuning for {@code failover:} endpoints, bound from {@code activemq.failover.*}. The
+ * field initializers are the only place the defaults are defined.
+ */
+@Component
+@ConfigurationProperties(prefix = "activemq.failover")
+public class FailoverSettings {
+    private long initialReconnectDelayMs = 100;
+    private long maxReconnectDelayMs = 5000;
+    private double backoffMultiplier = 2.0;
+    private int maxReconnectAttempts = 10;
+    private int startupMaxReconnectAttempts = 3;
+    /** Longest time a send waits for a reconnect before the tool call fails. */
+    private long timeoutMs = 30000;
+    private boolean randomize = false;
+    /** Keep a pre-warmed transport to the next broker in the list. */
+    private boolean backup = false;
+    /** Idle time after which a pooled failover connection is closed, 0 keeps it open. */
+    private int idleTimeoutMs = 0;
+    /** Number of endpoint/user combinations that keep a pooled connection open. */
+    private int maxPooledEndpoints = 16;
+
+    public long getInitialReconnectDelayMs() {
+        return initialReconnectDelayMs;
+    }
+
+    public void setInitialReconnectDelayMs(long initialReconnectDelayMs) {
+        this.initialReconnectDelayMs = initialReconnectDelayMs;
+    }
+
+    public long getMaxReconnectDelayMs() {
+        return maxReconnectDelayMs;
+    }
+
+    public void setMaxReconnectDelayMs(long maxReconnectDelayMs) {
+        this.maxReconnectDelayMs = maxReconnectDelayMs;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public int getMaxReconnectAttempts() {
+        return maxReconnectAttempts;
+    }
+
+    public void setMaxReconnectAttempts(int maxReconnectAttempts) {
+        this.maxReconnectAttempts = maxReconnectAttempts;
+    }
+
+    public int getStartupMaxReconnectAttempts() {
+        return startupMaxReconnectAttempts;
+    }
+
+    public void setStartupMaxReconnectAttempts(int startupMaxReconnectAttempts) {
+        this.startupMaxReconnectAttempts = startupMaxReconnectAttempts;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public boolean isRandomize() {
+        return randomize;
+    }
+
+    public void setRandomize(boolean randomize) {
+        this.randomize = randomize;
+    }
+
+    public boolean isBackup() {
+        return backup;
+    }
+
+    public void setBackup(boolean backup) {
+        this.backup = backup;
+    }
+
+    public int getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(int idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public int getMaxPooledEndpoints() {
+        return maxPooledEndpoints;
+    }
+
+    public void setMaxPooledEndpoints(int maxPooledEndpoints) {
+        this.maxPooledEndpoints = maxPooledEndpoints;
+    }
+}
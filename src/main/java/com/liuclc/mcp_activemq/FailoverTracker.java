@@ -0,0 +1,89 @@
+package com.liuclc.mcp_activemq;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.transport.TransportListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records how long the connections of one failover endpoint were interrupted. A failover starts
+ * when the first connection loses its transport and ends when the last interrupted connection has
+ * been resumed on another (or the same) broker.
+ */
+class FailoverTracker implements TransportListener {
+    private static final Logger logger = LoggerFactory.getLogger(FailoverTracker.class);
+
+    private final String endpoint;
+
+    private int interruptedConnections;
+    private long interruptedAtNanos;
+    private long interruptedAtMillis;
+    private long failoverCount;
+    private long lastFailoverMs = -1;
+    private long maxFailoverMs = -1;
+    private long lastFailoverAt = -1;
+
+    FailoverTracker(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void onCommand(Object command) {
+    }
+
+    @Override
+    public void onException(IOException error) {
+        logger.warn("Transport of {} failed: {}", endpoint, error.getMessage());
+    }
+
+    @Override
+    public synchronized void transportInterupted() {
+        if (interruptedConnections++ == 0) {
+            interruptedAtNanos = System.nanoTime();
+            interruptedAtMillis = System.currentTimeMillis();
+            logger.warn("Connection to {} interrupted, failing over", endpoint);
+        }
+    }
+
+    @Override
+    public synchronized void transportResumed() {
+        // The failover transport also reports the very first connect as resumed.
+        if (interruptedConnections == 0) {
+            return;
+        }
+
+        if (--interruptedConnections == 0) {
+            lastFailoverMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - interruptedAtNanos);
+            maxFailoverMs = Math.max(maxFailoverMs, lastFailoverMs);
+            lastFailoverAt = interruptedAtMillis;
+            failoverCount++;
+            logger.info("Connection to {} resumed after {} ms", endpoint, lastFailoverMs);
+        }
+    }
+
+    synchronized long getFailoverCount() {
+        return failoverCount;
+    }
+
+    synchronized long getLastFailoverMs() {
+        return lastFailoverMs;
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("endpoint", endpoint);
+        snapshot.put("interrupted", interruptedConnections > 0);
+        snapshot.put("failoverCount", failoverCount);
+        snapshot.put("lastFailoverMs", lastFailoverMs);
+        snapshot.put("maxFailoverMs", maxFailoverMs);
+        snapshot.put("lastFailoverAt", lastFailoverAt);
+        if (interruptedConnections > 0) {
+            snapshot.put("interruptedForMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - interruptedAtNanos));
+        }
+        return snapshot;
+    }
+}
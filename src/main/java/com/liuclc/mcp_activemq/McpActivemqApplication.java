@@ -1,5 +1,8 @@
 package com.liuclc.mcp_activemq;
 
+import java.util.List;
+
+import io.modelcontextprotocol.server.McpServerFeatures;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
@@ -19,4 +22,9 @@ public class McpActivemqApplication {
 					   .toolObjects(activemqMessageService)
 					   .build();
 	}
+
+	@Bean
+	public List<McpServerFeatures.SyncResourceSpecification> activemqDestinationResources(DestinationStatsCache destinationStatsCache) {
+		return destinationStatsCache.resourceSpecifications();
+	}
 }
@@ -0,0 +1,62 @@
+package com.liuclc.mcp_activemq;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Destinations published as MCP resources and how they are refreshed, bound from
+ * {@code activemq.resources.*}. The field initializers are the only place the defaults are defined.
+ */
+@Component
+@ConfigurationProperties(prefix = "activemq.resources")
+public class ResourceSettings {
+    /** Comma-separated queue names. */
+    private String queues = "";
+    /** Comma-separated topic names. */
+    private String topics = "";
+    private long refreshIntervalMs = 5000;
+    /** Send {@code notifications/resources/updated} when a watched destination changes. */
+    private boolean updateNotification = true;
+    /** Comma-separated {@code Attribute:delta} pairs; a change is only notified once an attribute moved by its delta. */
+    private String deltas = "QueueSize:10,ConsumerCount:1,ProducerCount:1,InFlightCount:10,MemoryPercentUsage:5";
+
+    public String getQueues() {
+        return queues;
+    }
+
+    public void setQueues(String queues) {
+        this.queues = queues;
+    }
+
+    public String getTopics() {
+        return topics;
+    }
+
+    public void setTopics(String topics) {
+        this.topics = topics;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public boolean isUpdateNotification() {
+        return updateNotification;
+    }
+
+    public void setUpdateNotification(boolean updateNotification) {
+        this.updateNotification = updateNotification;
+    }
+
+    public String getDeltas() {
+        return deltas;
+    }
+
+    public void setDeltas(String deltas) {
+        this.deltas = deltas;
+    }
+}
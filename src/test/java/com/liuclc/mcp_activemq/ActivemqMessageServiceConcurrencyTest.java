@@ -0,0 +1,346 @@
+package com.liuclc.mcp_activemq;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.jms.JMSException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the real {@link ActivemqMessageService} against an embedded broker ({@code vm://}) and a
+ * local stub Jolokia server from many threads at once, to catch the connection, thread and file
+ * descriptor leaks and the contention that the mocked {@link ActivemqMessageServiceTest} cannot see.
+ * <p>
+ * Throughput under contention must reach {@code -Dactivemq.concurrency.min-ops-per-second}
+ * (default 50). The multi-minute soak only runs when {@code -Dactivemq.soak.minutes=N} is given, e.g.
+ * {@code mvn test -Dtest=ActivemqMessageServiceConcurrencyTest -Dactivemq.soak.minutes=5}.
+ */
+public class ActivemqMessageServiceConcurrencyTest {
+
+    private static final String BROKER_NAME = "concurrency-test";
+    private static final String BROKER_ENDPOINT = "vm://" + BROKER_NAME + "?create=false";
+    private static final String JOLOKIA_THREAD_PREFIX = "jolokia-stub-";
+    private static final int THREADS = 16;
+    private static final int SENDS_PER_THREAD = 25;
+    private static final int THREAD_SLACK = 10;
+    private static final long FD_SLACK = 20;
+    private static final long HEAP_SLACK_BYTES = 64L * 1024 * 1024;
+    // Deliberately conservative so that slow CI machines pass; a regression to serialised sends does not.
+    private static final double MIN_OPS_PER_SECOND =
+            Double.parseDouble(System.getProperty("activemq.concurrency.min-ops-per-second", "50"));
+    private static final Pattern DESTINATION_PATTERN =
+            Pattern.compile("destinationType=(Queue|Topic),destinationName=([^/?]+)");
+
+    private static BrokerService broker;
+    private static HttpServer jolokia;
+    private static String jolokiaEndpoint;
+
+    private final ActivemqMessageService service = new ActivemqMessageService(new ConnectionFactoryCreator());
+
+    @BeforeAll
+    static void startBrokerAndJolokia() throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName(BROKER_NAME);
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setAdvisorySupport(false);
+        broker.start();
+        broker.waitUntilStarted();
+
+        jolokia = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // The stub's threads are started up front and left out of the thread count, so the leak
+        // checks measure the service rather than the stub.
+        AtomicInteger jolokiaThreads = new AtomicInteger();
+        ThreadPoolExecutor jolokiaExecutor = new ThreadPoolExecutor(
+                THREADS, THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, JOLOKIA_THREAD_PREFIX + jolokiaThreads.incrementAndGet()));
+        jolokiaExecutor.prestartAllCoreThreads();
+        jolokia.setExecutor(jolokiaExecutor);
+        jolokia.createContext("/api/jolokia", ActivemqMessageServiceConcurrencyTest::handleJolokiaRead);
+        jolokia.start();
+        jolokiaEndpoint = "http://localhost:" + jolokia.getAddress().getPort() + "/api/jolokia";
+    }
+
+    @AfterAll
+    static void stopBrokerAndJolokia() throws Exception {
+        if (jolokia != null) {
+            jolokia.stop(0);
+            ((ExecutorService) jolokia.getExecutor()).shutdownNow();
+        }
+        if (broker != null) {
+            broker.stop();
+            broker.waitUntilStopped();
+        }
+    }
+
+    /**
+     * Answers Jolokia {@code read} requests with the live statistics of the embedded broker.
+     */
+    private static void handleJolokiaRead(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawPath();
+        Matcher matcher = DESTINATION_PATTERN.matcher(path);
+
+        String body;
+        int status;
+        if (matcher.find()) {
+            try {
+                ActiveMQDestination destination = "Queue".equals(matcher.group(1))
+                        ? new ActiveMQQueue(matcher.group(2))
+                        : new ActiveMQTopic(matcher.group(2));
+                long size = broker.getDestination(destination).getDestinationStatistics().getMessages().getCount();
+                long enqueued = broker.getDestination(destination).getDestinationStatistics().getEnqueues().getCount();
+                body = String.format("{\"status\":200,\"value\":{\"QueueSize\":%d,\"EnqueueCount\":%d}}", size, enqueued);
+                status = 200;
+            } catch (Exception e) {
+                body = "{\"status\":500,\"error\":\"" + e.getMessage() + "\"}";
+                status = 500;
+            }
+        } else {
+            body = "{\"status\":404}";
+            status = 404;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void concurrentQueueSends_deliverAllMessagesWithoutLeaks() throws Exception {
+        String queueName = "concurrent.queue";
+        warmUp(queueName);
+        ResourceBaseline baseline = ResourceBaseline.capture();
+
+        long elapsedNanos = runConcurrently(THREADS, worker -> {
+            for (int i = 0; i < SENDS_PER_THREAD; i++) {
+                service.sendMessageToQueue(BROKER_ENDPOINT, "admin", "admin", queueName, "message-" + worker + "-" + i);
+            }
+        });
+
+        int expected = THREADS * SENDS_PER_THREAD;
+        assertEquals(expected + 1, queueSize(queueName));
+        assertThroughput("queue sends", expected, elapsedNanos);
+        baseline.assertNoLeaks();
+    }
+
+    @Test
+    void mixedToolCallsUnderContention_completeWithoutLeaks() throws Exception {
+        String queueName = "mixed.queue";
+        String topicName = "mixed.topic";
+        warmUp(queueName);
+        ResourceBaseline baseline = ResourceBaseline.capture();
+        AtomicLong sent = new AtomicLong();
+
+        long elapsedNanos = runConcurrently(THREADS, worker -> {
+            for (int i = 0; i < SENDS_PER_THREAD; i++) {
+                switch ((worker + i) % 4) {
+                    case 0 -> {
+                        service.sendMessageToQueue(BROKER_ENDPOINT, "admin", "admin", queueName, "message-" + i);
+                        sent.incrementAndGet();
+                    }
+                    case 1 -> service.sendMessageToTopic(BROKER_ENDPOINT, "admin", "admin", topicName, "message-" + i);
+                    case 2 -> assertTrue(service.inspectQueue(jolokiaEndpoint, "admin", "admin", queueName)
+                                                .contains("\"status\":200"));
+                    default -> assertTrue(service.inspectTopic(jolokiaEndpoint, "admin", "admin", topicName)
+                                                 .contains("\"status\":200"));
+                }
+            }
+        });
+
+        assertEquals(sent.get() + 1, queueSize(queueName));
+        assertThroughput("mixed tool calls", THREADS * SENDS_PER_THREAD, elapsedNanos);
+        baseline.assertNoLeaks();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "activemq.soak.minutes", matches = "\\d+")
+    void soak_keepsHeapAndResourcesStable() throws Exception {
+        long minutes = Long.getLong("activemq.soak.minutes");
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(minutes);
+        String queueName = "soak.queue";
+
+        warmUp(queueName);
+        ResourceBaseline baseline = ResourceBaseline.capture();
+        AtomicLong calls = new AtomicLong();
+
+        long elapsedNanos = runConcurrently(THREADS, worker -> {
+            while (System.nanoTime() < deadline) {
+                service.sendMessageToQueue(BROKER_ENDPOINT, "admin", "admin", queueName, "soak-" + worker);
+                service.inspectQueue(jolokiaEndpoint, "admin", "admin", queueName);
+                calls.addAndGet(2);
+            }
+        });
+
+        assertThroughput("soak tool calls", calls.get(), elapsedNanos);
+        baseline.assertNoLeaks();
+        baseline.assertHeapStable();
+    }
+
+    /**
+     * Warms up class loading, connection plumbing and the HTTP client before a baseline is taken.
+     * Leaves one message on the queue.
+     */
+    private void warmUp(String queueName) throws JMSException {
+        service.sendMessageToQueue(BROKER_ENDPOINT, "admin", "admin", queueName, "warm-up");
+        service.inspectQueue(jolokiaEndpoint, "admin", "admin", queueName);
+    }
+
+    private long queueSize(String queueName) throws Exception {
+        return broker.getDestination(new ActiveMQQueue(queueName)).getDestinationStatistics().getMessages().getCount();
+    }
+
+    private static void assertThroughput(String label, long operations, long elapsedNanos) {
+        double opsPerSecond = operations / (elapsedNanos / 1_000_000_000.0);
+        assertTrue(opsPerSecond >= MIN_OPS_PER_SECOND,
+                   String.format("%s: %.1f ops/s from %d threads is below the minimum of %.1f ops/s",
+                                 label, opsPerSecond, THREADS, MIN_OPS_PER_SECOND));
+    }
+
+    /**
+     * Releases all workers at once and waits for them, rethrowing the first failure.
+     *
+     * @return the wall-clock time the workers took, in nanoseconds
+     */
+    private static long runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                final int workerId = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        start.await();
+                        worker.run(workerId);
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - startedAt;
+
+            if (!failures.isEmpty()) {
+                AssertionError error = new AssertionError(failures.size() + " worker(s) failed");
+                failures.forEach(error::addSuppressed);
+                throw error;
+            }
+            return elapsed;
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int workerId) throws Exception;
+    }
+
+    /**
+     * Broker connections, live threads, open file descriptors and used heap captured before a run.
+     */
+    private record ResourceBaseline(long connections, long threads, long fileDescriptors, long usedHeap) {
+
+        static ResourceBaseline capture() throws Exception {
+            return new ResourceBaseline(brokerConnections(), liveThreads(), openFileDescriptors(), usedHeapAfterGc());
+        }
+
+        void assertNoLeaks() throws Exception {
+            // Connection and thread teardown is asynchronous in the client, so give it a moment to settle.
+            awaitAtMost(connections, ResourceBaseline::brokerConnections, "broker connections");
+            awaitAtMost(threads + THREAD_SLACK, ResourceBaseline::liveThreads, "live threads");
+            if (fileDescriptors >= 0) {
+                awaitAtMost(fileDescriptors + FD_SLACK, ResourceBaseline::openFileDescriptors, "open file descriptors");
+            }
+        }
+
+        void assertHeapStable() {
+            long after = usedHeapAfterGc();
+            assertTrue(after <= usedHeap + HEAP_SLACK_BYTES,
+                       String.format("Used heap grew from %d to %d bytes", usedHeap, after));
+        }
+
+        private static void awaitAtMost(long limit, LongSupplier current, String what) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            long value = current.getAsLong();
+            while (value > limit && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+                value = current.getAsLong();
+            }
+            assertTrue(value <= limit, String.format("%s did not return to baseline: %d > %d", what, value, limit));
+        }
+
+        private static long brokerConnections() {
+            try {
+                return broker.getBroker().getClients().length;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to read broker connections", e);
+            }
+        }
+
+        private static long liveThreads() {
+            return Thread.getAllStackTraces().keySet().stream()
+                         .filter(thread -> !thread.getName().startsWith(JOLOKIA_THREAD_PREFIX))
+                         .count();
+        }
+
+        private static long openFileDescriptors() {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.UnixOperatingSystemMXBean unix) {
+                return unix.getOpenFileDescriptorCount();
+            }
+            return -1;
+        }
+
+        private static long usedHeapAfterGc() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.liuclc.mcp_activemq;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.region.policy.PolicyEntry;
+import org.apache.activemq.broker.region.policy.PolicyMap;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ConnectionId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends through a {@code failover:} endpoint over two embedded brokers and stops the active one
+ * between sends, the way an Amazon MQ active/standby pair fails over.
+ */
+public class ActivemqMessageServiceFailoverTest {
+
+    private static final String QUEUE_NAME = "failover.queue";
+    private static final int IDLE_WINDOW_MS = 1000;
+
+    private BrokerService primary;
+    private BrokerService secondary;
+    private ConnectionFactoryCreator factoryCreator;
+    private ActivemqMessageService service;
+    private String endpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = startBroker("failover-primary");
+        secondary = startBroker("failover-secondary");
+        endpoint = String.format("failover:(%s,%s)",
+                                 primary.getTransportConnectors().get(0).getPublishableConnectString(),
+                                 secondary.getTransportConnectors().get(0).getPublishableConnectString());
+
+        factoryCreator = new ConnectionFactoryCreator(failoverSettings(0));
+        service = new ActivemqMessageService(factoryCreator);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        factoryCreator.close();
+        for (BrokerService broker : new BrokerService[]{primary, secondary}) {
+            if (broker.isStarted()) {
+                broker.stop();
+                broker.waitUntilStopped();
+            }
+        }
+    }
+
+    private static FailoverSettings failoverSettings(int idleTimeoutMs) {
+        FailoverSettings settings = new FailoverSettings();
+        settings.setInitialReconnectDelayMs(50);
+        settings.setMaxReconnectDelayMs(500);
+        settings.setTimeoutMs(10000);
+        settings.setBackup(true);
+        settings.setIdleTimeoutMs(idleTimeoutMs);
+        return settings;
+    }
+
+    private static BrokerService startBroker(String name) throws Exception {
+        return startBroker(name, null);
+    }
+
+    private static BrokerService startBroker(String name, PolicyMap destinationPolicy) throws Exception {
+        BrokerService broker = new BrokerService();
+        broker.setBrokerName(name);
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        if (destinationPolicy != null) {
+            broker.setDestinationPolicy(destinationPolicy);
+        }
+        broker.addConnector("tcp://localhost:0");
+        broker.start();
+        broker.waitUntilStarted();
+        return broker;
+    }
+
+    private static long queueSize(BrokerService broker) throws Exception {
+        return broker.getDestination(new ActiveMQQueue(QUEUE_NAME)).getDestinationStatistics().getMessages().getCount();
+    }
+
+    @Test
+    void whenPrimaryStops_thenSendsContinueOnSecondaryAndFailoverIsTimed() throws Exception {
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "before failover");
+        assertEquals(1, queueSize(primary));
+
+        primary.stop();
+        primary.waitUntilStopped();
+
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "after failover");
+        assertEquals(1, queueSize(secondary));
+
+        FailoverTracker tracker = factoryCreator.getFailoverTracker(endpoint);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tracker.getFailoverCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, tracker.getFailoverCount());
+        assertTrue(tracker.getLastFailoverMs() >= 0);
+        assertTrue(service.getFailoverStatistics().contains("\"failoverCount\":1"));
+    }
+
+    @Test
+    void whenPrimaryStopsDuringSend_thenSendCompletesOnSecondaryOnTheSameConnection() throws Exception {
+        // Producer flow control on a tiny memory limit keeps the second send waiting for the primary's reply.
+        PolicyEntry tinyQueues = new PolicyEntry();
+        tinyQueues.setQueue(">");
+        tinyQueues.setMemoryLimit(1);
+        PolicyMap policy = new PolicyMap();
+        policy.setDefaultEntry(tinyQueues);
+        primary.stop();
+        primary.waitUntilStopped();
+        primary = startBroker("failover-primary", policy);
+        endpoint = String.format("failover:(%s,%s)",
+                                 primary.getTransportConnectors().get(0).getPublishableConnectString(),
+                                 secondary.getTransportConnectors().get(0).getPublishableConnectString());
+
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "fills the queue");
+        ConnectionId connectionId = primary.getBroker().getClients()[0].getConnectionId();
+
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> send = sender.submit(() -> {
+                service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "in flight");
+                return null;
+            });
+            Thread.sleep(500);
+            assertFalse(send.isDone(), "the send should be blocked by the primary");
+
+            primary.stop();
+            primary.waitUntilStopped();
+
+            send.get(10, TimeUnit.SECONDS);
+        } finally {
+            sender.shutdownNow();
+        }
+
+        assertEquals(1, queueSize(secondary));
+        assertEquals(1, secondary.getBroker().getClients().length);
+        assertEquals(connectionId, secondary.getBroker().getClients()[0].getConnectionId());
+    }
+
+    @Test
+    void whenPooledFactoryIsEvictedDuringUse_thenItIsClosedOnlyAfterRelease() throws Exception {
+        factoryCreator.close();
+        FailoverSettings settings = failoverSettings(0);
+        settings.setMaxPooledEndpoints(1);
+        factoryCreator = new ConnectionFactoryCreator(settings);
+
+        ConnectionFactory inUse = factoryCreator.getConnectionFactory(endpoint, "admin", "admin");
+        ConnectionId inUseId;
+        try (Connection connection = inUse.createConnection();
+             Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+             MessageProducer producer = session.createProducer(session.createQueue(QUEUE_NAME))) {
+            inUseId = primary.getBroker().getClients()[0].getConnectionId();
+
+            factoryCreator.releaseConnectionFactory(factoryCreator.getConnectionFactory(endpoint, "other", "admin"));
+            assertEquals(1, factoryCreator.getPooledEndpointCount());
+
+            producer.send(session.createTextMessage("sent after eviction"));
+        }
+        assertEquals(1, queueSize(primary));
+        assertTrue(isConnected(primary, inUseId));
+
+        factoryCreator.releaseConnectionFactory(inUse);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (isConnected(primary, inUseId) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(isConnected(primary, inUseId));
+    }
+
+    private static boolean isConnected(BrokerService broker, ConnectionId connectionId) throws Exception {
+        for (var client : broker.getBroker().getClients()) {
+            if (connectionId.equals(client.getConnectionId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void whenConnectionIsPooled_thenSendsReuseTheBrokerConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "message-" + i);
+        }
+
+        assertEquals(5, queueSize(primary));
+        assertEquals(1, primary.getBroker().getClients().length);
+    }
+
+    @Test
+    void whenIdleLongerThanPoolIdleWindow_thenConnectionStaysWarm() throws Exception {
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "first");
+        ConnectionId connectionId = primary.getBroker().getClients()[0].getConnectionId();
+
+        Thread.sleep(IDLE_WINDOW_MS + 500);
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "second");
+
+        assertEquals(1, primary.getBroker().getClients().length);
+        assertEquals(connectionId, primary.getBroker().getClients()[0].getConnectionId());
+    }
+
+    @Test
+    void whenPoolHasIdleTimeout_thenIdleConnectionIsReplaced() throws Exception {
+        // Control for the test above: with an idle timeout the same wait does cost a reconnect.
+        factoryCreator.close();
+        factoryCreator = new ConnectionFactoryCreator(failoverSettings(IDLE_WINDOW_MS));
+        service = new ActivemqMessageService(factoryCreator);
+
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "first");
+        ConnectionId connectionId = primary.getBroker().getClients()[0].getConnectionId();
+
+        Thread.sleep(IDLE_WINDOW_MS + 500);
+        service.sendMessageToQueue(endpoint, "admin", "admin", QUEUE_NAME, "second");
+
+        assertNotEquals(connectionId, primary.getBroker().getClients()[0].getConnectionId());
+    }
+}
@@ -10,7 +10,11 @@ import javax.jms.Session;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 
+import java.util.List;
+import java.util.Map;
+
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ScheduledMessage;
 import org.apache.activemq.jms.pool.PooledConnectionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,16 +32,22 @@ import org.springframework.web.client.RestTemplate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -81,6 +91,8 @@ public class ActivemqMessageServiceTest {
     @BeforeEach
     void setUp() throws JMSException {
         // Common setup for connection factory
+        when(factoryCreator.getConnectionFactory(anyString(), anyString(), anyString()))
+                .thenReturn(connectionFactory);
         when(factoryCreator.createActiveMQConnectionFactory(anyString(), anyString(), anyString()))
                 .thenReturn(connectionFactory);
         when(connectionFactory.createConnection()).thenReturn(connection);
@@ -341,6 +353,42 @@ public class ActivemqMessageServiceTest {
         assertEquals("Error inspecting topic: " + errorMessage, result);
     }
 
+    @Test
+    void testPostJolokiaRequests_Success() {
+        String jolokiaEndpoint = "http://localhost:8161/api/jolokia/";
+        String requestBody = "[{\"type\":\"read\",\"mbean\":\"java.lang:type=Memory\"}]";
+        String expectedResponse = "[{\"status\":200,\"value\":{}}]";
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(restTemplate).when(serviceSpy).createRestTemplate();
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.POST),
+                any(HttpEntity.class),
+                eq(String.class)
+        )).thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+
+        String result = serviceSpy.postJolokiaRequests(jolokiaEndpoint, "admin", "admin", requestBody);
+
+        assertEquals(expectedResponse, result);
+        verify(restTemplate).exchange(
+                eq("http://localhost:8161/api/jolokia"),
+                eq(HttpMethod.POST),
+                any(HttpEntity.class),
+                eq(String.class)
+        );
+    }
+
+    @Test
+    void whenJolokiaEndpointIsInvalidForBulkRequest_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.postJolokiaRequests("http://unauthorized.host:8161", "user", "pass", "[]")
+        );
+        assertEquals("Invalid Jolokia endpoint URL", exception.getMessage());
+    }
+
     @Test
     void testSendMessageToQueue() throws JMSException {
         // Arrange
@@ -354,7 +402,7 @@ public class ActivemqMessageServiceTest {
 
         service.sendMessageToQueue(activemqEndpoint, activemqUsername, activemqPassword, queueName, messageBody);
 
-        verify(factoryCreator).createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        verify(factoryCreator).getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
         verify(connectionFactory).createConnection();
         verify(connection).start();
         verify(session).createQueue(queueName);
@@ -383,6 +431,19 @@ public class ActivemqMessageServiceTest {
         );
     }
 
+    @Test
+    void whenSendFails_thenConnectionFailureIsReported() throws JMSException {
+        String activemqEndpoint = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+        JMSException failure = new JMSException("Connection error");
+        doThrow(failure).when(connection).start();
+
+        assertThrows(JMSException.class, () ->
+                service.sendMessageToQueue(activemqEndpoint, "admin", "wrong", "testQueue", "Test message"));
+
+        verify(factoryCreator).handleConnectionFailure(activemqEndpoint, "admin", "wrong", failure);
+        verify(factoryCreator).releaseConnectionFactory(connectionFactory);
+    }
+
     @Test
     void testSendMessageToTopic() throws JMSException {
         String activemqEndpoint = "tcp://localhost:61616";
@@ -395,7 +456,7 @@ public class ActivemqMessageServiceTest {
 
         service.sendMessageToTopic(activemqEndpoint, activemqUsername, activemqPassword, topicName, messageBody);
 
-        verify(factoryCreator).createActiveMQConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
+        verify(factoryCreator).getConnectionFactory(activemqEndpoint, activemqUsername, activemqPassword);
         verify(connectionFactory).createConnection();
         verify(connection).start();
         verify(session).createTopic(topicName);
@@ -515,4 +576,427 @@ public class ActivemqMessageServiceTest {
         verify(connection).close();
         verify(producer).send(textMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSendScheduledMessageToQueue_SetsScheduleProperties() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+        when(textMessage.getJMSMessageID()).thenReturn("ID:test-1");
+
+        String result = service.sendScheduledMessageToQueue("tcp://localhost:61616", "admin", "admin", queueName,
+                                                             "Test message", 5000L, 1000L, 3, "0 * * * *");
+
+        assertEquals("ID:test-1", result);
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 5000L);
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_PERIOD, 1000L);
+        verify(textMessage).setIntProperty(ScheduledMessage.AMQ_SCHEDULED_REPEAT, 3);
+        verify(textMessage).setStringProperty(ScheduledMessage.AMQ_SCHEDULED_CRON, "0 * * * *");
+        verify(producer).send(textMessage);
+        verify(producer).close();
+        verify(session).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void testSendScheduledMessageToQueue_OnlySetsGivenProperties() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+
+        service.sendScheduledMessageToQueue("tcp://localhost:61616", "admin", "admin", queueName,
+                                            "Test message", 5000L, null, null, null);
+
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 5000L);
+        verify(textMessage, never()).setLongProperty(eq(ScheduledMessage.AMQ_SCHEDULED_PERIOD), anyLong());
+        verify(textMessage, never()).setIntProperty(eq(ScheduledMessage.AMQ_SCHEDULED_REPEAT), anyInt());
+        verify(textMessage, never()).setStringProperty(eq(ScheduledMessage.AMQ_SCHEDULED_CRON), anyString());
+    }
+
+    @Test
+    void whenScheduleIsNegative_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.sendScheduledMessageToQueue("tcp://localhost:61616", "admin", "admin", "testQueue",
+                                                          "Test message", -1L, null, null, null)
+        );
+        assertEquals("Schedule values must not be negative", exception.getMessage());
+    }
+
+    @Test
+    void testScheduleMessageBurstToQueue_SpreadsDelays() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+
+        String result = service.scheduleMessageBurstToQueue("tcp://localhost:61616", "admin", "admin", queueName,
+                                                            "Test message", 3, 1000L, 1000L);
+
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 1000L);
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 1500L);
+        verify(textMessage).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 2000L);
+        verify(producer, times(3)).send(textMessage);
+        verify(connectionFactory, times(1)).createConnection();
+        verify(connection).close();
+        assertEquals("Scheduled 3 messages on queue testQueue, released evenly from 1000 ms to 2000 ms", result);
+    }
+
+    @Test
+    void whenSpreadIsShorterThanMessageCount_thenBurstIsStillSpread() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+
+        String result = service.scheduleMessageBurstToQueue("tcp://localhost:61616", "admin", "admin", queueName,
+                                                            "Test message", 5, 100L, 2L);
+
+        verify(textMessage, times(2)).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 100L);
+        verify(textMessage, times(2)).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 101L);
+        verify(textMessage, times(1)).setLongProperty(ScheduledMessage.AMQ_SCHEDULED_DELAY, 102L);
+        verify(producer, times(5)).send(textMessage);
+        assertEquals("Scheduled 5 messages on queue testQueue, released evenly from 100 ms to 102 ms", result);
+    }
+
+    @Test
+    void whenBurstSizeIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.scheduleMessageBurstToQueue("tcp://localhost:61616", "admin", "admin", "testQueue",
+                                                          "Test message", 0, 0L, 1000L)
+        );
+        assertEquals("Message count must be between 1 and 10000", exception.getMessage());
+    }
+
+    @Test
+    void testListScheduledJobs_Success() {
+        String jolokiaEndpoint = "http://localhost:8161/api/jolokia";
+        String expectedResponse = "{\"status\":200,\"value\":{}}";
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(restTemplate).when(serviceSpy).createRestTemplate();
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                eq(String.class)
+        )).thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
+
+        String result = serviceSpy.listScheduledJobs(jolokiaEndpoint, "admin", "admin");
+
+        assertEquals(expectedResponse, result);
+        verify(restTemplate).exchange(
+                eq(jolokiaEndpoint + "/read/org.apache.activemq:type=Broker,brokerName=localhost,service=JobScheduler,name=JMS/AllJobs"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                eq(String.class)
+        );
+    }
+
+    @Test
+    void testListScheduledJobs_Exception() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(restTemplate).when(serviceSpy).createRestTemplate();
+
+        when(restTemplate.exchange(
+                anyString(),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                eq(String.class)
+        )).thenThrow(new RuntimeException("Connection refused"));
+
+        String result = serviceSpy.listScheduledJobs("http://localhost:8161/api/jolokia", "admin", "admin");
+
+        assertEquals("Error listing scheduled jobs: Connection refused", result);
+    }
+
+    @Test
+    void testCancelScheduledJob_PostsRemoveJob() {
+        String jolokiaEndpoint = "http://localhost:8161/api/jolokia";
+        String jobId = "ID:host-1234-1:1:1:1:1";
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn("{\"status\":200}").when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.cancelScheduledJob(jolokiaEndpoint, "admin", "admin", jobId);
+
+        assertEquals("{\"status\":200}", result);
+        verify(serviceSpy).postJolokiaRequests(eq(jolokiaEndpoint), eq("admin"), eq("admin"),
+                                               contains("\"operation\":\"removeJob\",\"arguments\":[\"" + jobId + "\"]"));
+    }
+
+    @Test
+    void whenJobIdIsEmpty_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.cancelScheduledJob("http://localhost:8161/api/jolokia", "admin", "admin", " ")
+        );
+        assertEquals("Invalid job ID", exception.getMessage());
+    }
+
+    @Test
+    void whenCancelJolokiaEndpointIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.cancelScheduledJob("http://unauthorized.host:8161", "admin", "admin", " ")
+        );
+        assertEquals("Invalid Jolokia endpoint URL", exception.getMessage());
+    }
+
+    private static String subscriptions(String... consumers) {
+        return "{\"status\":200,\"value\":{" + String.join(",", consumers) + "}}";
+    }
+
+    /**
+     * A pattern read entry as Jolokia returns it: keyed by the canonical ObjectName, which is the
+     * only place the consumer ID appears.
+     */
+    private static String subscription(String consumerId, long prefetch, long inFlight, long dispatched, long dequeued, boolean slow) {
+        return String.format("\"org.apache.activemq:brokerName=localhost,clientId=ID_host-1234-1_1,connectionId=ID_host-1234-1_1,"
+                                     + "consumerId=%1$s,destinationName=testQueue,destinationType=Queue,endpoint=Consumer,type=Broker\":"
+                                     + "{\"ClientId\":\"ID:host-1234-1:1\",\"ConnectionId\":\"ID:host-1234-1:1\",\"PrefetchSize\":%2$d,"
+                                     + "\"DispatchedQueueSize\":%3$d,\"DispatchedCounter\":%4$d,\"DequeueCounter\":%5$d,\"SlowConsumer\":%6$b}",
+                             consumerId, prefetch, inFlight, dispatched, dequeued, slow);
+    }
+
+    @Test
+    void testInspectConsumerLag_TakesConsumerIdFromObjectName() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(subscriptions(subscription("ID_host-1234-1_1_1_1", 100, 0, 10, 10, false)))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Queue", "testQueue", null);
+
+        assertTrue(result.contains("\"consumerId\":\"ID_host-1234-1_1_1_1\""));
+        assertTrue(result.contains("\"objectName\":\"org.apache.activemq:brokerName=localhost,clientId=ID_host-1234-1_1,"));
+        assertTrue(result.contains("\"clientId\":\"ID:host-1234-1:1\""));
+        verify(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), argThat(body -> !body.contains("ConsumerId")));
+    }
+
+    @Test
+    void testInspectConsumerLag_OrdersWorstConsumersFirst() {
+        String jolokiaEndpoint = "http://localhost:8161/api/jolokia";
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(subscriptions(
+                subscription("healthy", 1000, 10, 500, 490, false),
+                subscription("full", 1000, 1000, 2000, 1000, false),
+                subscription("slow", 1000, 50, 300, 250, true)
+        )).when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag(jolokiaEndpoint, "admin", "admin", "Queue", "testQueue", null);
+
+        assertTrue(result.indexOf("\"slow\"") < result.indexOf("\"full\""));
+        assertTrue(result.indexOf("\"full\"") < result.indexOf("\"healthy\""));
+        assertTrue(result.contains("\"consumerCount\":3"));
+        assertTrue(result.contains("\"lag\":1000,\"prefetchFill\":1.0"));
+        verify(serviceSpy, times(1)).postJolokiaRequests(eq(jolokiaEndpoint), eq("admin"), eq("admin"),
+                contains("destinationType=Queue,destinationName=testQueue,endpoint=Consumer,*"));
+    }
+
+    @Test
+    void testInspectConsumerLag_EstimatesRateFromTwoSamples() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(subscriptions(subscription("busy", 100, 20, 100, 80, false), subscription("stuck", 100, 100, 100, 0, false)),
+                 subscriptions(subscription("busy", 100, 20, 200, 180, false), subscription("stuck", 100, 100, 100, 0, false)))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Queue", "testQueue", 10L);
+
+        verify(serviceSpy, times(2)).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+        assertTrue(result.contains("\"stuck\":true"));
+        assertTrue(result.contains("\"estimatedDrainSeconds\""));
+    }
+
+    @Test
+    void testInspectConsumerLag_OrdersStuckConsumersBeforeFullOnes() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(subscriptions(subscription("full", 100, 100, 200, 100, false), subscription("stuck", 100, 50, 50, 0, false)),
+                 subscriptions(subscription("full", 100, 100, 300, 200, false), subscription("stuck", 100, 50, 50, 0, false)))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Queue", "testQueue", 10L);
+
+        assertTrue(result.indexOf("\"consumerId\":\"stuck\"") < result.indexOf("\"consumerId\":\"full\""));
+    }
+
+    @Test
+    void whenConsumerLagJolokiaEndpointIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.inspectConsumerLag("http://unauthorized.host:8161", "admin", "admin", "Queue", "testQueue", null)
+        );
+        assertEquals("Invalid Jolokia endpoint URL", exception.getMessage());
+    }
+
+    @Test
+    void testInspectConsumerLag_NoConsumers() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn("{\"status\":404,\"error\":\"No MBean found\"}")
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Topic", "testTopic", null);
+
+        assertTrue(result.contains("\"consumerCount\":0"));
+    }
+
+    @Test
+    void testInspectConsumerLag_Exception() {
+        ActivemqMessageService serviceSpy = spy(service);
+        doThrow(new RuntimeException("Connection refused"))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Queue", "testQueue", null);
+
+        assertEquals("Error inspecting consumers: Connection refused", result);
+    }
+
+    @Test
+    void whenConsumerLagDestinationTypeIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Exchange", "testQueue", null)
+        );
+        assertEquals("Invalid destination type", exception.getMessage());
+    }
+
+    @Test
+    void whenConsumerLagDestinationNameIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.inspectConsumerLag("http://localhost:8161/api/jolokia", "admin", "admin", "Queue", "queue/with/slashes", null)
+        );
+        assertEquals("Invalid destination name", exception.getMessage());
+    }
+
+    @Test
+    void testGetFailoverStatistics() {
+        when(factoryCreator.getFailoverStatistics()).thenReturn(List.of(Map.of("failoverCount", 2)));
+
+        String result = service.getFailoverStatistics();
+
+        assertEquals("[{\"failoverCount\":2}]", result);
+    }
+
+    private static String utilisation(int brokerMemory, int store) {
+        return String.format("[{\"status\":200,\"value\":{\"MemoryPercentUsage\":%d,\"StorePercentUsage\":%d}},"
+                                     + "{\"status\":404,\"error\":\"No MBean found\"}]", brokerMemory, store);
+    }
+
+    @Test
+    void testSendMessagesToQueueAdaptive_ThrottlesWhileBrokerIsBusy() throws JMSException {
+        String jolokiaEndpoint = "http://localhost:8161/api/jolokia";
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(utilisation(90, 5), utilisation(10, 5))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                               jolokiaEndpoint, "admin", "admin",
+                                                               queueName, "Test message", 15, null);
+
+        verify(connectionFactory).setSendTimeout(anyInt());
+        verify(producer, times(15)).send(textMessage);
+        verify(serviceSpy).postJolokiaRequests(eq(jolokiaEndpoint), eq("admin"), eq("admin"),
+                contains("destinationType=Queue,destinationName=testQueue"));
+        verify(producer).close();
+        verify(session).close();
+        verify(connection).close();
+        assertTrue(result.contains("\"sent\":15"));
+        assertTrue(result.contains("\"throttleCount\":1"));
+        assertTrue(result.contains("broker utilisation 90% reached target 70%"));
+    }
+
+    @Test
+    void testSendMessagesToQueueAdaptive_SendsWithoutThrottling() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(utilisation(10, 5)).when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                               "http://localhost:8161/api/jolokia", "admin", "admin",
+                                                               queueName, "Test message", 3, 80);
+
+        verify(producer, times(3)).send(textMessage);
+        assertTrue(result.contains("\"throttleCount\":0"));
+    }
+
+    @Test
+    void whenAdaptiveSendFails_thenReportsWhatWasSent() throws JMSException {
+        String queueName = "testQueue";
+        when(session.createQueue(queueName)).thenReturn(queue);
+        doNothing().doThrow(new JMSException("Send timed out")).when(producer).send(textMessage);
+
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn(utilisation(10, 5)).when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                               "http://localhost:8161/api/jolokia", "admin", "admin",
+                                                               queueName, "Test message", 5, null);
+
+        verify(connection).close();
+        assertTrue(result.contains("\"sent\":1"));
+        assertTrue(result.contains("\"stopReason\":\"Send timed out\""));
+    }
+
+    @Test
+    void whenUtilisationCannotBeReadAtStart_thenAdaptiveSendFailsFast() throws JMSException {
+        ActivemqMessageService serviceSpy = spy(service);
+        doThrow(new RuntimeException("401 Unauthorized"))
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                               "http://localhost:8161/api/jolokia", "admin", "wrong",
+                                                               "testQueue", "Test message", 5, null);
+
+        assertEquals("Error reading broker utilisation: 401 Unauthorized", result);
+        verify(connectionFactory, never()).createConnection();
+    }
+
+    @Test
+    void whenBrokerMBeanIsMissingAtStart_thenAdaptiveSendFailsFast() throws JMSException {
+        ActivemqMessageService serviceSpy = spy(service);
+        doReturn("[{\"status\":404,\"error\":\"javax.management.InstanceNotFoundException\"},{\"status\":404}]")
+                .when(serviceSpy).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+
+        String result = serviceSpy.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                               "http://localhost:8161/api/jolokia", "admin", "admin",
+                                                               "testQueue", "Test message", 5, null);
+
+        assertEquals("Error reading broker utilisation: javax.management.InstanceNotFoundException", result);
+        verify(producer, never()).send(any(TextMessage.class));
+    }
+
+    @Test
+    void whenAdaptiveSendCountIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                          "http://localhost:8161/api/jolokia", "admin", "admin",
+                                                          "testQueue", "Test message", 0, null)
+        );
+        assertEquals("Message count must be between 1 and 100000", exception.getMessage());
+    }
+
+    @Test
+    void whenAdaptiveSendTargetIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                          "http://localhost:8161/api/jolokia", "admin", "admin",
+                                                          "testQueue", "Test message", 10, 100)
+        );
+        assertEquals("Target utilisation must be between 1 and 99 percent", exception.getMessage());
+    }
+
+    @Test
+    void whenAdaptiveSendJolokiaEndpointIsInvalid_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.sendMessagesToQueueAdaptive("tcp://localhost:61616", "admin", "admin",
+                                                          "http://unauthorized.host:8161", "admin", "admin",
+                                                          "testQueue", "Test message", 10, null)
+        );
+        assertEquals("Invalid Jolokia endpoint URL", exception.getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+package com.liuclc.mcp_activemq;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveSendControllerTest {
+
+    private final AdaptiveSendController controller = new AdaptiveSendController(70);
+
+    @Test
+    void whenBrokerHasHeadroom_thenBatchGrowsAndPauseShrinks() {
+        assertTrue(controller.beforeBatch(0, 10));
+        controller.afterBatch(0, 1.0);
+        assertTrue(controller.beforeBatch(10, 10));
+        controller.afterBatch(10, 1.0);
+        assertTrue(controller.beforeBatch(20, 10));
+
+        assertEquals(AdaptiveSendController.INITIAL_BATCH_SIZE * 3, controller.getBatchSize());
+        assertEquals(0, controller.getPauseMs());
+        assertEquals(0, controller.getThrottleCount());
+    }
+
+    @Test
+    void whenUtilisationReachesTarget_thenBatchHalvesAndPauseStarts() {
+        controller.beforeBatch(0, 10);
+        controller.afterBatch(0, 1.0);
+
+        assertFalse(controller.beforeBatch(5, 70));
+
+        assertEquals(AdaptiveSendController.INITIAL_BATCH_SIZE / 2, controller.getBatchSize());
+        assertEquals(AdaptiveSendController.INITIAL_PAUSE_MS, controller.getPauseMs());
+        assertEquals(1, controller.getThrottleCount());
+        assertEquals("broker utilisation 70% reached target 70%", controller.getThrottleEvents().get(0).get("reason"));
+        assertEquals(5L, controller.getThrottleEvents().get(0).get("atMs"));
+    }
+
+    @Test
+    void whenUtilisationIsWithinHeadroom_thenBatchIsKept() {
+        controller.afterBatch(0, 1.0);
+
+        assertTrue(controller.beforeBatch(1, 65));
+        assertEquals(AdaptiveSendController.INITIAL_BATCH_SIZE, controller.getBatchSize());
+    }
+
+    @Test
+    void whenSendLatencyJumps_thenThrottles() {
+        controller.afterBatch(0, 5.0);
+        controller.afterBatch(10, 50.0);
+
+        assertEquals(1, controller.getThrottleCount());
+        assertTrue(controller.getThrottleEvents().get(0).get("reason").toString().startsWith("send latency 50.0 ms"));
+    }
+
+    @Test
+    void whenSendLatencyStaysBelowFloor_thenDoesNotThrottle() {
+        controller.afterBatch(0, 0.1);
+        controller.afterBatch(10, 5.0);
+
+        assertEquals(0, controller.getThrottleCount());
+    }
+
+    @Test
+    void whenUtilisationCannotBeRead_thenThrottles() {
+        assertFalse(controller.beforeBatch(0, -1));
+
+        assertEquals("broker utilisation could not be read", controller.getThrottleEvents().get(0).get("reason"));
+    }
+
+    @Test
+    void whenBrokerStaysFull_thenStallsWithBoundedPause() {
+        for (int i = 0; i < AdaptiveSendController.MAX_CONSECUTIVE_THROTTLES; i++) {
+            assertFalse(controller.isStalled());
+            controller.beforeBatch(i, 99);
+        }
+
+        assertTrue(controller.isStalled());
+        assertEquals("broker utilisation 99% reached target 70%", controller.getLastThrottleReason());
+        assertEquals(1, controller.getBatchSize());
+        assertEquals(AdaptiveSendController.MAX_PAUSE_MS, controller.getPauseMs());
+    }
+
+    @Test
+    void whenBatchSucceedsAfterThrottling_thenStallCounterResets() {
+        controller.beforeBatch(0, 99);
+        controller.afterBatch(10, 1.0);
+        assertFalse(controller.isStalled());
+
+        assertTrue(controller.beforeBatch(20, 10));
+        assertEquals(AdaptiveSendController.INITIAL_PAUSE_MS / 2, controller.getPauseMs());
+    }
+
+    @Test
+    void whenUtilisationRisesDuringBatch_thenBatchDoesNotGrow() {
+        assertTrue(controller.beforeBatch(0, 10));
+        controller.afterBatch(10, 1.0);
+
+        assertTrue(controller.beforeBatch(20, 65));
+
+        assertEquals(AdaptiveSendController.INITIAL_BATCH_SIZE, controller.getBatchSize());
+        assertEquals(0, controller.getThrottleCount());
+    }
+}
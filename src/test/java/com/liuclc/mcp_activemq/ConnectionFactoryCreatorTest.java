@@ -0,0 +1,160 @@
+package com.liuclc.mcp_activemq;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.JMSSecurityException;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.jms.pool.PooledConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionFactoryCreatorTest {
+
+    private final ConnectionFactoryCreator creator = new ConnectionFactoryCreator();
+
+    @AfterEach
+    void tearDown() {
+        creator.close();
+    }
+
+    @Test
+    void whenEndpointIsNotFailover_thenEndpointIsUnchanged() {
+        assertEquals("ssl://broker-1:61617", creator.tuneFailoverEndpoint("ssl://broker-1:61617"));
+    }
+
+    @Test
+    void whenEndpointIsFailover_thenReconnectOptionsAreAdded() {
+        String tuned = creator.tuneFailoverEndpoint("failover:(ssl://broker-1:61617,ssl://broker-2:61617)");
+
+        assertEquals("failover:(ssl://broker-1:61617,ssl://broker-2:61617)?initialReconnectDelay=100&maxReconnectDelay=5000"
+                             + "&useExponentialBackOff=true&backOffMultiplier=2.0&maxReconnectAttempts=10"
+                             + "&startupMaxReconnectAttempts=3&timeout=30000&randomize=false", tuned);
+    }
+
+    @Test
+    void whenFailoverEndpointHasOptions_thenTheyWin() {
+        String tuned = creator.tuneFailoverEndpoint("failover:(ssl://broker-1:61617,ssl://broker-2:61617)?randomize=true&timeout=1000");
+
+        assertTrue(tuned.startsWith("failover:(ssl://broker-1:61617,ssl://broker-2:61617)?randomize=true&timeout=1000&"));
+        assertEquals(1, tuned.split("randomize=").length - 1);
+        assertEquals(1, tuned.split("timeout=").length - 1);
+    }
+
+    @Test
+    void whenFailoverEndpointHasNoParentheses_thenItIsWrapped() {
+        String tuned = creator.tuneFailoverEndpoint("failover:ssl://broker-1:61617");
+
+        assertTrue(tuned.startsWith("failover:(ssl://broker-1:61617)?initialReconnectDelay=100"));
+    }
+
+    @Test
+    void whenFailoverEndpointUsesDoubleSlash_thenItIsTuned() {
+        String tuned = creator.tuneFailoverEndpoint("failover://(tcp://broker-1:61616,tcp://broker-2:61616)?randomize=true");
+
+        assertTrue(tuned.startsWith("failover:(tcp://broker-1:61616,tcp://broker-2:61616)?randomize=true&initialReconnectDelay=100"));
+    }
+
+    @Test
+    void whenBackupIsEnabled_thenBackupTransportIsPreWarmed() {
+        FailoverSettings settings = new FailoverSettings();
+        settings.setBackup(true);
+        ConnectionFactoryCreator backupCreator = new ConnectionFactoryCreator(settings);
+
+        String tuned = backupCreator.tuneFailoverEndpoint("failover:(ssl://broker-1:61617,ssl://broker-2:61617)");
+
+        assertTrue(tuned.endsWith("&backup=true&backupPoolSize=1"));
+    }
+
+    @Test
+    void whenEndpointIsNotFailover_thenFactoryIsNotCached() {
+        ConnectionFactory first = creator.getConnectionFactory("tcp://localhost:61616", "admin", "admin");
+        ConnectionFactory second = creator.getConnectionFactory("tcp://localhost:61616", "admin", "admin");
+
+        assertInstanceOf(ActiveMQConnectionFactory.class, first);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void whenEndpointIsFailover_thenPooledFactoryIsCachedPerUser() {
+        String endpoint = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+
+        ConnectionFactory first = creator.getConnectionFactory(endpoint, "admin", "admin");
+        ConnectionFactory second = creator.getConnectionFactory(endpoint, "admin", "admin");
+        ConnectionFactory otherUser = creator.getConnectionFactory(endpoint, "other", "admin");
+
+        assertInstanceOf(PooledConnectionFactory.class, first);
+        assertSame(first, second);
+        assertNotSame(first, otherUser);
+        assertEquals(1, creator.getFailoverStatistics().size());
+    }
+
+    @Test
+    void whenMorePooledEndpointsThanAllowed_thenLeastRecentlyUsedIsClosed() {
+        FailoverSettings settings = new FailoverSettings();
+        settings.setMaxPooledEndpoints(2);
+        ConnectionFactoryCreator boundedCreator = new ConnectionFactoryCreator(settings);
+        String endpoint = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+
+        try {
+            ConnectionFactory first = boundedCreator.getConnectionFactory(endpoint, "first", "admin");
+            boundedCreator.getConnectionFactory(endpoint, "second", "admin");
+            boundedCreator.getConnectionFactory(endpoint, "first", "admin");
+            boundedCreator.getConnectionFactory(endpoint, "third", "admin");
+
+            assertEquals(2, boundedCreator.getPooledEndpointCount());
+            assertSame(first, boundedCreator.getConnectionFactory(endpoint, "first", "admin"));
+        } finally {
+            boundedCreator.close();
+        }
+    }
+
+    @Test
+    void whenLastPooledUserOfAnEndpointIsEvicted_thenItsTrackerIsDropped() {
+        FailoverSettings settings = new FailoverSettings();
+        settings.setMaxPooledEndpoints(1);
+        ConnectionFactoryCreator boundedCreator = new ConnectionFactoryCreator(settings);
+        String first = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+        String second = "failover:(tcp://localhost:61618,tcp://localhost:61619)";
+
+        try {
+            boundedCreator.releaseConnectionFactory(boundedCreator.getConnectionFactory(first, "admin", "admin"));
+            boundedCreator.releaseConnectionFactory(boundedCreator.getConnectionFactory(second, "admin", "admin"));
+
+            assertEquals(1, boundedCreator.getFailoverTrackerCount());
+            assertNull(boundedCreator.getFailoverTracker(first));
+        } finally {
+            boundedCreator.close();
+        }
+    }
+
+    @Test
+    void whenConnectionFailsWithSecurityException_thenPooledFactoryIsEvicted() {
+        String endpoint = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+        ConnectionFactory rejected = creator.getConnectionFactory(endpoint, "admin", "wrong");
+
+        JMSException failure = new JMSException("Error while attempting to add new Connection to the pool");
+        failure.setLinkedException(new JMSSecurityException("User name [admin] or password is invalid."));
+        creator.handleConnectionFailure(endpoint, "admin", "wrong", failure);
+
+        assertEquals(0, creator.getPooledEndpointCount());
+        assertNotSame(rejected, creator.getConnectionFactory(endpoint, "admin", "wrong"));
+    }
+
+    @Test
+    void whenConnectionFailsForOtherReasons_thenPooledFactoryIsKept() {
+        String endpoint = "failover:(tcp://localhost:61616,tcp://localhost:61617)";
+        creator.getConnectionFactory(endpoint, "admin", "admin");
+
+        creator.handleConnectionFailure(endpoint, "admin", "admin", new JMSException("Connection reset"));
+
+        assertEquals(1, creator.getPooledEndpointCount());
+    }
+}
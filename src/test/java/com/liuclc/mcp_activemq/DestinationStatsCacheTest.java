@@ -0,0 +1,211 @@
+package com.liuclc.mcp_activemq;
+
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DestinationStatsCacheTest {
+
+    private static final String JOLOKIA_ENDPOINT = "http://localhost:8161/api/jolokia";
+    private static final String QUEUE_URI = "activemq://localhost/queue/testQueue";
+
+    @Mock
+    private ActivemqMessageService messageService;
+
+    @Mock
+    private ObjectProvider<McpSyncServer> mcpSyncServerProvider;
+
+    @Mock
+    private McpSyncServer mcpSyncServer;
+
+    private DestinationStatsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(mcpSyncServerProvider.getIfAvailable()).thenReturn(mcpSyncServer);
+        cache = createCache("testQueue", "");
+    }
+
+    private DestinationStatsCache createCache(String queues, String topics) {
+        return createCache(queues, topics, "QueueSize:10,ConsumerCount:1", true);
+    }
+
+    private DestinationStatsCache createCache(String queues, String topics, String deltas, boolean updateNotification) {
+        ResourceSettings settings = new ResourceSettings();
+        settings.setQueues(queues);
+        settings.setTopics(topics);
+        settings.setDeltas(deltas);
+        settings.setUpdateNotification(updateNotification);
+        return new DestinationStatsCache(messageService, mcpSyncServerProvider, JOLOKIA_ENDPOINT, "admin", "admin",
+                                         "localhost", settings);
+    }
+
+    private void respondWith(long queueSize, long consumerCount) {
+        String response = String.format("[{\"status\":200,\"value\":{\"QueueSize\":%d,\"ConsumerCount\":%d}}]",
+                                        queueSize, consumerCount);
+        when(messageService.postJolokiaRequests(eq(JOLOKIA_ENDPOINT), eq("admin"), eq("admin"), anyString()))
+                .thenReturn(response);
+    }
+
+    @Test
+    void testResourceSpecifications_UseDestinationUris() {
+        cache = createCache("testQueue", "testTopic");
+
+        var specifications = cache.resourceSpecifications();
+
+        assertEquals(2, specifications.size());
+        assertEquals(QUEUE_URI, specifications.get(0).resource().uri());
+        assertEquals("activemq://localhost/topic/testTopic", specifications.get(1).resource().uri());
+    }
+
+    @Test
+    void testRefresh_UsesSingleBulkRequest() {
+        cache = createCache("testQueue,otherQueue", "testTopic");
+        when(messageService.postJolokiaRequests(anyString(), anyString(), anyString(), anyString())).thenReturn("[]");
+
+        cache.refresh();
+
+        verify(messageService, times(1)).postJolokiaRequests(
+                eq(JOLOKIA_ENDPOINT), eq("admin"), eq("admin"),
+                contains("destinationType=Topic,destinationName=testTopic"));
+    }
+
+    @Test
+    void testRead_ReturnsCachedValues() {
+        respondWith(5, 2);
+        cache.refresh();
+
+        String result = cache.read(QUEUE_URI);
+
+        assertTrue(result.contains("\"QueueSize\":5"));
+        assertTrue(result.contains("\"ConsumerCount\":2"));
+    }
+
+    @Test
+    void whenNotRefreshedYet_thenReadDoesNotCallJolokia() {
+        String result = cache.read(QUEUE_URI);
+
+        assertTrue(result.contains("\"value\":{}"));
+        verify(messageService, never()).postJolokiaRequests(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void whenValuesStayWithinDelta_thenNoNotification() {
+        respondWith(5, 2);
+        cache.refresh();
+
+        respondWith(14, 2);
+        cache.refresh();
+
+        verify(mcpSyncServer, times(1)).notifyResourcesUpdated(any(McpSchema.ResourcesUpdatedNotification.class));
+    }
+
+    @Test
+    void whenValueCrossesDelta_thenNotifies() {
+        respondWith(5, 2);
+        cache.refresh();
+
+        respondWith(15, 2);
+        cache.refresh();
+
+        respondWith(15, 1);
+        cache.refresh();
+
+        verify(mcpSyncServer, times(3)).notifyResourcesUpdated(new McpSchema.ResourcesUpdatedNotification(QUEUE_URI));
+    }
+
+    @Test
+    void whenDeltaIsMeasuredFromLastNotification_thenSmallStepsAccumulate() {
+        respondWith(0, 2);
+        cache.refresh();
+        respondWith(6, 2);
+        cache.refresh();
+        respondWith(12, 2);
+        cache.refresh();
+
+        verify(mcpSyncServer, times(2)).notifyResourcesUpdated(any(McpSchema.ResourcesUpdatedNotification.class));
+    }
+
+    @Test
+    void whenNotificationsDisabled_thenNoNotification() {
+        cache = createCache("testQueue", "", "QueueSize:10", false);
+        respondWith(5, 2);
+
+        cache.refresh();
+
+        verify(mcpSyncServer, never()).notifyResourcesUpdated(any(McpSchema.ResourcesUpdatedNotification.class));
+    }
+
+    @Test
+    void whenJolokiaFails_thenKeepsPreviousValues() {
+        respondWith(5, 2);
+        cache.refresh();
+
+        when(messageService.postJolokiaRequests(anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Connection refused"));
+        cache.refresh();
+
+        String result = cache.read(QUEUE_URI);
+        assertTrue(result.contains("\"QueueSize\":5"));
+        assertTrue(result.contains("\"error\":\"Failed to refresh: Connection refused\""));
+    }
+
+    @Test
+    void whenDestinationIsGone_thenErrorIsRecordedWithPreviousValues() {
+        respondWith(5, 2);
+        cache.refresh();
+
+        when(messageService.postJolokiaRequests(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn("[{\"status\":404,\"error\":\"javax.management.InstanceNotFoundException\"}]");
+        cache.refresh();
+
+        String result = cache.read(QUEUE_URI);
+        assertTrue(result.contains("\"QueueSize\":5"));
+        assertTrue(result.contains("\"error\":\"javax.management.InstanceNotFoundException\""));
+        verify(mcpSyncServer, times(2)).notifyResourcesUpdated(new McpSchema.ResourcesUpdatedNotification(QUEUE_URI));
+
+        respondWith(5, 2);
+        cache.refresh();
+
+        assertFalse(cache.read(QUEUE_URI).contains("\"error\""));
+    }
+
+    @Test
+    void whenDestinationNameIsInvalid_thenThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> createCache("queue/with/slashes", ""));
+    }
+
+    @Test
+    void whenDeltaAttributeIsUnknown_thenThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> createCache("testQueue", "", "Unknown:1", true));
+    }
+
+    @Test
+    void whenDeltaEntryIsMalformed_thenThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class, () -> createCache("testQueue", "", "QueueSize10", true));
+        assertEquals("Malformed entry in resource deltas: QueueSize10, expected Attribute:delta", exception.getMessage());
+    }
+}